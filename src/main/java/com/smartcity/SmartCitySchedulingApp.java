@@ -92,22 +92,23 @@ public class SmartCitySchedulingApp {
         System.out.println("A(0) ----------(50)---------> E(4)");
 
         MetricsImpl metrics = new MetricsImpl();
-        TarjanSCC sccDetector = new TarjanSCC(graph, metrics);
-        SCCResult sccResult = sccDetector.findSCC();
+        SCCResult sccResult = TarjanSCC.cachedSCC(graph, metrics);
 
         System.out.println("\nSCC Analysis:");
         System.out.println("Number of SCCs: " + sccResult.getNumComponents());
-        boolean isDAG = sccResult.getNumComponents() == graph.getNumVertices();
-        System.out.println("Is DAG: " + isDAG);
+        List<Integer> cycle = CycleDetector.findCycle(graph);
+        System.out.println("Is DAG: " + (cycle == null));
+        if (cycle != null) {
+            System.out.println("Cycle: " + formatVertexNames(cycle));
+        }
 
         System.out.println("SCCs found:");
         for (int i = 0; i < sccResult.getNumComponents(); i++) {
-            List<Integer> component = sccResult.getComponents().get(i);
+            List<Integer> component = sccResult.getComponent(i);
             System.out.println("  SCC " + i + ": " + formatVertexNames(component));
         }
 
-        SCCCondensation condensation = new SCCCondensation(graph, sccResult);
-        Graph condensedGraph = condensation.buildCondensationDAG();
+        CSRGraph condensedGraph = SCCCondensation.cachedCondensationDAG(graph, metrics);
 
         System.out.println("\nCondensed DAG:");
         System.out.println("Condensed graph has " + condensedGraph.getNumVertices() + " super-nodes");
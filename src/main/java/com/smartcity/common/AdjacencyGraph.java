@@ -0,0 +1,82 @@
+package com.smartcity.common;
+
+/**
+ * Read-only adjacency access shared by every graph representation.
+ * Out-edges of a vertex are addressed by position {@code 0..getOutDegree(v)-1},
+ * so algorithms can walk them without allocating iterators or edge objects.
+ * Positional access is O(1) except on {@link CompressedGraph}, where it is
+ * O(index); traversals should use {@link #edgeCursor()}, which is sequential
+ * everywhere. Vertex arguments are not range-checked here; callers validate
+ * once up front.
+ */
+public interface AdjacencyGraph {
+
+    DerivedCache.Key<int[]> IN_DEGREES = new DerivedCache.Key<>("in_degrees");
+
+    int getNumVertices();
+
+    boolean isDirected();
+
+    int getNumEdges();
+
+    int getOutDegree(int vertex);
+
+    int getEdgeTarget(int vertex, int index);
+
+    double getEdgeWeight(int vertex, int index);
+
+    /**
+     * Cache of results derived from this graph. Mutable graphs discard its
+     * entries whenever they change; immutable ones keep them for life.
+     */
+    DerivedCache getDerivedCache();
+
+    /**
+     * Returns a fresh in-degree array that the caller may modify. The default
+     * counts with one pass over every edge; representations that track
+     * in-degrees override this with an O(V) copy.
+     */
+    default int[] getInDegrees() {
+        int n = getNumVertices();
+        int[] inDegree = new int[n];
+        EdgeCursor cursor = edgeCursor();
+        for (int u = 0; u < n; u++) {
+            cursor.reset(u);
+            while (cursor.next()) {
+                inDegree[cursor.target()]++;
+            }
+        }
+        return inDegree;
+    }
+
+    /**
+     * Returns the in-degree array from the derived cache, counting it on first
+     * use. The array is shared and must not be modified; clone it for a
+     * working copy.
+     */
+    default int[] getCachedInDegrees() {
+        return getDerivedCache().computeIfAbsent(IN_DEGREES, this::getInDegrees);
+    }
+
+    /**
+     * Returns an in-degree array the caller may modify: a copy of the cached
+     * array if one is present, otherwise a fresh count that is not cached. Either
+     * way exactly one array is allocated and nothing new is retained.
+     */
+    default int[] copyInDegrees() {
+        int[] cached = getDerivedCache().getIfPresent(IN_DEGREES);
+        return cached != null ? cached.clone() : getInDegrees();
+    }
+
+    default EdgeCursor edgeCursor() {
+        return new IndexedEdgeCursor(this);
+    }
+
+    default void forEachEdge(int vertex, EdgeVisitor visitor) {
+        EdgeCursor cursor = edgeCursor();
+        cursor.reset(vertex);
+        while (cursor.next()) {
+            visitor.visit(cursor.target(), cursor.weight());
+        }
+    }
+}
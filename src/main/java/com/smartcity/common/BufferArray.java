@@ -0,0 +1,99 @@
+package com.smartcity.common;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Long-indexed primitive array over a sequence of {@link ByteBuffer} chunks,
+ * so a single array can exceed the 2 GB limit of one buffer. Chunks are a
+ * power of two in size, which keeps 4- and 8-byte elements from straddling
+ * a chunk boundary.
+ *
+ * Arrays are backed by memory-mapped files, never by
+ * {@link ByteBuffer#allocateDirect}, so they are not capped by
+ * {@code -XX:MaxDirectMemorySize} (which defaults to {@code -Xmx}) and the OS
+ * can page them out under memory pressure.
+ */
+final class BufferArray {
+
+    static final int CHUNK_SHIFT = 30;
+    static final long CHUNK_BYTES = 1L << CHUNK_SHIFT;
+    private static final long CHUNK_MASK = CHUNK_BYTES - 1;
+
+    private final ByteBuffer[] chunks;
+    private final long byteSize;
+
+    BufferArray(ByteBuffer[] chunks, long byteSize) {
+        this.chunks = chunks;
+        this.byteSize = byteSize;
+    }
+
+    /**
+     * Maps writable, zero-filled arrays of the given byte sizes into one
+     * anonymous temporary file. The file is unlinked when its channel closes,
+     * right after mapping, so its space is reclaimed once the buffers are
+     * garbage collected.
+     */
+    static BufferArray[] mapTemporary(long... byteSizes) throws IOException {
+        Path file = Files.createTempFile("smartcity-graph", ".bin");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE)) {
+            BufferArray[] arrays = new BufferArray[byteSizes.length];
+            long position = 0;
+            for (int i = 0; i < arrays.length; i++) {
+                arrays[i] = map(channel, FileChannel.MapMode.READ_WRITE, position, byteSizes[i]);
+                position += byteSizes[i];
+            }
+            return arrays;
+        }
+    }
+
+    static BufferArray map(FileChannel channel, long position, long byteSize) throws IOException {
+        return map(channel, FileChannel.MapMode.READ_ONLY, position, byteSize);
+    }
+
+    static BufferArray map(FileChannel channel, FileChannel.MapMode mode, long position, long byteSize)
+            throws IOException {
+        ByteBuffer[] chunks = new ByteBuffer[chunkCount(byteSize)];
+        for (int i = 0; i < chunks.length; i++) {
+            long chunkStart = (long) i << CHUNK_SHIFT;
+            long size = Math.min(CHUNK_BYTES, byteSize - chunkStart);
+            chunks[i] = channel.map(mode, position + chunkStart, size)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return new BufferArray(chunks, byteSize);
+    }
+
+    static int chunkCount(long byteSize) {
+        return (int) ((byteSize + CHUNK_BYTES - 1) >>> CHUNK_SHIFT);
+    }
+
+    long byteSize() {
+        return byteSize;
+    }
+
+    int getInt(long index) {
+        long offset = index << 2;
+        return chunks[(int) (offset >>> CHUNK_SHIFT)].getInt((int) (offset & CHUNK_MASK));
+    }
+
+    void putInt(long index, int value) {
+        long offset = index << 2;
+        chunks[(int) (offset >>> CHUNK_SHIFT)].putInt((int) (offset & CHUNK_MASK), value);
+    }
+
+    double getDouble(long index) {
+        long offset = index << 3;
+        return chunks[(int) (offset >>> CHUNK_SHIFT)].getDouble((int) (offset & CHUNK_MASK));
+    }
+
+    void putDouble(long index, double value) {
+        long offset = index << 3;
+        chunks[(int) (offset >>> CHUNK_SHIFT)].putDouble((int) (offset & CHUNK_MASK), value);
+    }
+}
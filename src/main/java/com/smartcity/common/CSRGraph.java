@@ -0,0 +1,388 @@
+package com.smartcity.common;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable compressed-sparse-row snapshot of a graph. The out-edges of vertex
+ * {@code v} occupy positions {@code offsets[v] .. offsets[v + 1] - 1} of the
+ * {@code targets} and {@code weights} arrays, so traversal is a sequential
+ * scan over primitive memory.
+ */
+public final class CSRGraph implements AdjacencyGraph {
+
+    private final int numVertices;
+    private final boolean directed;
+    private final int[] offsets;
+    private final int[] targets;
+    private final double[] weights;
+
+    private final int[] inOffsets;
+    private final int[] sources;
+    private final double[] inWeights;
+    private int[] inDegrees;
+    private final DerivedCache derivedCache = new DerivedCache();
+
+    CSRGraph(int numVertices, boolean directed, int[] offsets, int[] targets, double[] weights) {
+        this(numVertices, directed, offsets, targets, weights, null, null, null);
+    }
+
+    private CSRGraph(int numVertices, boolean directed, int[] offsets, int[] targets, double[] weights,
+            int[] inOffsets, int[] sources, double[] inWeights) {
+        this.numVertices = numVertices;
+        this.directed = directed;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.inOffsets = inOffsets;
+        this.sources = sources;
+        this.inWeights = inWeights;
+    }
+
+    public static CSRGraph fromGraph(AdjacencyGraph graph) {
+        if (graph instanceof CSRGraph) {
+            return (CSRGraph) graph;
+        }
+
+        int n = graph.getNumVertices();
+        int[] offsets = new int[n + 1];
+        for (int u = 0; u < n; u++) {
+            offsets[u + 1] = offsets[u] + graph.getOutDegree(u);
+        }
+
+        int m = offsets[n];
+        int[] targets = new int[m];
+        double[] weights = new double[m];
+
+        EdgeCursor cursor = graph.edgeCursor();
+        for (int u = 0; u < n; u++) {
+            int e = offsets[u];
+            cursor.reset(u);
+            while (cursor.next()) {
+                targets[e] = cursor.target();
+                weights[e++] = cursor.weight();
+            }
+        }
+
+        return new CSRGraph(n, graph.isDirected(), offsets, targets, weights);
+    }
+
+    /**
+     * Wraps ready-made CSR arrays without copying them. {@code offsets} must
+     * have {@code numVertices + 1} non-decreasing entries starting at 0 and
+     * ending at the edge count; the graph takes ownership of the arrays.
+     */
+    public static CSRGraph fromArrays(int numVertices, boolean directed, int[] offsets, int[] targets,
+            double[] weights) {
+        if (offsets.length != numVertices + 1 || offsets[0] != 0 || offsets[numVertices] != targets.length
+                || weights.length != targets.length) {
+            throw new IllegalArgumentException("CSR arrays do not describe " + numVertices + " vertices");
+        }
+        for (int v = 0; v < numVertices; v++) {
+            if (offsets[v] > offsets[v + 1]) {
+                throw new IllegalArgumentException("CSR offsets must be non-decreasing at vertex " + v);
+            }
+        }
+        for (int target : targets) {
+            if (target < 0 || target >= numVertices) {
+                throw new IllegalArgumentException(
+                        String.format("Vertex %d is out of range [0, %d)", target, numVertices));
+            }
+        }
+        return new CSRGraph(numVertices, directed, offsets, targets, weights);
+    }
+
+    public static CSRGraph fromGraphData(GraphData data) {
+        int n = data.numVertices;
+        int[] offsets = new int[n + 1];
+
+        if (data.edges != null) {
+            for (GraphData.EdgeData edge : data.edges) {
+                validateVertex(edge.from, n);
+                validateVertex(edge.to, n);
+                offsets[edge.from + 1]++;
+                if (!data.directed) {
+                    offsets[edge.to + 1]++;
+                }
+            }
+        }
+
+        for (int u = 0; u < n; u++) {
+            offsets[u + 1] += offsets[u];
+        }
+
+        int m = offsets[n];
+        int[] targets = new int[m];
+        double[] weights = new double[m];
+        int[] next = Arrays.copyOf(offsets, n);
+
+        if (data.edges != null) {
+            for (GraphData.EdgeData edge : data.edges) {
+                int pos = next[edge.from]++;
+                targets[pos] = edge.to;
+                weights[pos] = edge.weight;
+                if (!data.directed) {
+                    pos = next[edge.to]++;
+                    targets[pos] = edge.from;
+                    weights[pos] = edge.weight;
+                }
+            }
+        }
+
+        return new CSRGraph(n, data.directed, offsets, targets, weights);
+    }
+
+    static CSRGraph fromEdgeLists(int n, boolean directed, List<EdgeList> parts) {
+        int[] offsets = new int[n + 1];
+        long slots = 0;
+
+        for (EdgeList part : parts) {
+            for (int i = 0; i < part.size(); i++) {
+                int from = part.from(i);
+                int to = part.to(i);
+                validateVertex(from, n);
+                validateVertex(to, n);
+                offsets[from + 1]++;
+                if (!directed) {
+                    offsets[to + 1]++;
+                }
+            }
+            slots += directed ? part.size() : 2L * part.size();
+        }
+        OffHeapGraph.checkEdgeCount(slots);
+
+        for (int u = 0; u < n; u++) {
+            offsets[u + 1] += offsets[u];
+        }
+
+        int m = offsets[n];
+        int[] targets = new int[m];
+        double[] weights = new double[m];
+        int[] next = Arrays.copyOf(offsets, n);
+
+        for (EdgeList part : parts) {
+            for (int i = 0; i < part.size(); i++) {
+                int from = part.from(i);
+                int to = part.to(i);
+                int pos = next[from]++;
+                targets[pos] = to;
+                weights[pos] = part.weight(i);
+                if (!directed) {
+                    pos = next[to]++;
+                    targets[pos] = from;
+                    weights[pos] = part.weight(i);
+                }
+            }
+        }
+
+        return new CSRGraph(n, directed, offsets, targets, weights);
+    }
+
+    @Override
+    public DerivedCache getDerivedCache() {
+        return derivedCache;
+    }
+
+    @Override
+    public int getNumVertices() {
+        return numVertices;
+    }
+
+    @Override
+    public boolean isDirected() {
+        return directed;
+    }
+
+    @Override
+    public int getNumEdges() {
+        return directed ? targets.length : targets.length / 2;
+    }
+
+    @Override
+    public int getOutDegree(int vertex) {
+        return offsets[vertex + 1] - offsets[vertex];
+    }
+
+    @Override
+    public int getEdgeTarget(int vertex, int index) {
+        return targets[offsets[vertex] + index];
+    }
+
+    @Override
+    public double getEdgeWeight(int vertex, int index) {
+        return weights[offsets[vertex] + index];
+    }
+
+    /**
+     * Returns a snapshot sharing this graph's forward arrays plus an
+     * incoming-edge index, built with one counting pass over the edges.
+     * In-edges of each vertex are ordered by source vertex.
+     */
+    public CSRGraph withReverseIndex() {
+        if (hasReverseIndex()) {
+            return this;
+        }
+
+        int m = targets.length;
+        int[] reverseOffsets = new int[numVertices + 1];
+        for (int e = 0; e < m; e++) {
+            reverseOffsets[targets[e] + 1]++;
+        }
+        for (int v = 0; v < numVertices; v++) {
+            reverseOffsets[v + 1] += reverseOffsets[v];
+        }
+
+        int[] reverseSources = new int[m];
+        double[] reverseWeights = new double[m];
+        int[] next = Arrays.copyOf(reverseOffsets, numVertices);
+        for (int u = 0; u < numVertices; u++) {
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int pos = next[targets[e]]++;
+                reverseSources[pos] = u;
+                reverseWeights[pos] = weights[e];
+            }
+        }
+
+        return new CSRGraph(numVertices, directed, offsets, targets, weights,
+                reverseOffsets, reverseSources, reverseWeights);
+    }
+
+    public boolean hasReverseIndex() {
+        return inOffsets != null;
+    }
+
+    /**
+     * Returns the graph with every edge reversed. With a reverse index this
+     * is free: the two directions simply swap roles.
+     */
+    public CSRGraph transpose() {
+        CSRGraph indexed = withReverseIndex();
+        return new CSRGraph(numVertices, directed, indexed.inOffsets, indexed.sources, indexed.inWeights,
+                offsets, targets, weights);
+    }
+
+    public int getInDegree(int vertex) {
+        if (inOffsets != null) {
+            return inOffsets[vertex + 1] - inOffsets[vertex];
+        }
+        return cachedInDegrees()[vertex];
+    }
+
+    @Override
+    public int[] getInDegrees() {
+        if (inOffsets != null) {
+            int[] inDegree = new int[numVertices];
+            for (int v = 0; v < numVertices; v++) {
+                inDegree[v] = inOffsets[v + 1] - inOffsets[v];
+            }
+            return inDegree;
+        }
+        return cachedInDegrees().clone();
+    }
+
+    private int[] cachedInDegrees() {
+        int[] cached = inDegrees;
+        if (cached == null) {
+            cached = new int[numVertices];
+            for (int target : targets) {
+                cached[target]++;
+            }
+            inDegrees = cached;
+        }
+        return cached;
+    }
+
+    public int getInEdgeSource(int vertex, int index) {
+        requireReverseIndex();
+        return sources[inOffsets[vertex] + index];
+    }
+
+    public double getInEdgeWeight(int vertex, int index) {
+        requireReverseIndex();
+        return inWeights[inOffsets[vertex] + index];
+    }
+
+    private void requireReverseIndex() {
+        if (inOffsets == null) {
+            throw new IllegalStateException("Reverse index not built; use withReverseIndex()");
+        }
+    }
+
+    @Override
+    public EdgeCursor edgeCursor() {
+        return new Cursor();
+    }
+
+    @Override
+    public void forEachEdge(int vertex, EdgeVisitor visitor) {
+        for (int e = offsets[vertex]; e < offsets[vertex + 1]; e++) {
+            visitor.visit(targets[e], weights[e]);
+        }
+    }
+
+    public int getEdgeStart(int vertex) {
+        return offsets[vertex];
+    }
+
+    public int getEdgeEnd(int vertex) {
+        return offsets[vertex + 1];
+    }
+
+    public int getTarget(int edge) {
+        return targets[edge];
+    }
+
+    public double getWeight(int edge) {
+        return weights[edge];
+    }
+
+    private final class Cursor implements EdgeCursor {
+        private int edge;
+        private int end;
+
+        @Override
+        public void reset(int vertex) {
+            edge = offsets[vertex] - 1;
+            end = offsets[vertex + 1];
+        }
+
+        @Override
+        public boolean next() {
+            return ++edge < end;
+        }
+
+        @Override
+        public int target() {
+            return targets[edge];
+        }
+
+        @Override
+        public double weight() {
+            return weights[edge];
+        }
+
+        @Override
+        public long position() {
+            return edge;
+        }
+
+        @Override
+        public void resume(int vertex, long position) {
+            edge = (int) position;
+            end = offsets[vertex + 1];
+        }
+    }
+
+    private static void validateVertex(int vertex, int numVertices) {
+        if (vertex < 0 || vertex >= numVertices) {
+            throw new IllegalArgumentException(
+                    String.format("Vertex %d is out of range [0, %d)", vertex, numVertices));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CSRGraph: %d vertices, %d edges, %s",
+                numVertices, getNumEdges(), directed ? "directed" : "undirected");
+    }
+}
@@ -0,0 +1,375 @@
+package com.smartcity.common;
+
+import java.util.Arrays;
+
+/**
+ * Read-only graph with varint gap-encoded adjacency, for large sparse networks
+ * whose neighbour ids sit close to the source id. Each vertex's record is
+ *
+ * <pre>
+ *   varint(degree)
+ *   zigzag-varint(first target - vertex), then varint(gap to previous target) ...
+ * </pre>
+ *
+ * with every target followed by its weight as a zigzag varint of
+ * {@code round(weight / quantum)}, unless all weights are equal, in which case
+ * a single shared weight is stored and no per-edge weight bytes are written.
+ * Neighbour lists are stored in ascending target order. Sequential traversal
+ * through {@link #edgeCursor()} decodes on the fly; positional access decodes
+ * from the start of the list and costs O(index).
+ */
+public final class CompressedGraph implements AdjacencyGraph {
+
+    private final int numVertices;
+    private final int numEdgeSlots;
+    private final boolean directed;
+    private final int[] offsets;
+    private final byte[] data;
+    private final double quantum;
+    private final boolean uniformWeight;
+    private final double sharedWeight;
+    private final DerivedCache derivedCache = new DerivedCache();
+
+    private CompressedGraph(int numVertices, int numEdgeSlots, boolean directed, int[] offsets, byte[] data,
+            double quantum, boolean uniformWeight, double sharedWeight) {
+        this.numVertices = numVertices;
+        this.numEdgeSlots = numEdgeSlots;
+        this.directed = directed;
+        this.offsets = offsets;
+        this.data = data;
+        this.quantum = quantum;
+        this.uniformWeight = uniformWeight;
+        this.sharedWeight = sharedWeight;
+    }
+
+    /**
+     * Encodes with quantum 1.0 when every weight is integral (lossless) and
+     * 0.001 otherwise, which is lossy: each weight is rounded to the nearest
+     * thousandth. Pass a smaller quantum to {@link #encode(AdjacencyGraph,
+     * double)} when that is too coarse.
+     */
+    public static CompressedGraph encode(AdjacencyGraph graph) {
+        boolean integral = true;
+        EdgeCursor cursor = graph.edgeCursor();
+        for (int u = 0; u < graph.getNumVertices() && integral; u++) {
+            cursor.reset(u);
+            while (cursor.next()) {
+                if (cursor.weight() != Math.rint(cursor.weight())) {
+                    integral = false;
+                    break;
+                }
+            }
+        }
+        return encode(graph, integral ? 1.0 : 0.001);
+    }
+
+    /**
+     * Encodes {@code graph}, rounding each weight to the nearest multiple of
+     * {@code quantum}; the absolute error per weight is at most quantum / 2.
+     * A uniform weight is stored exactly and is exempt.
+     *
+     * @throws IllegalArgumentException if a weight to be quantised is NaN,
+     *         infinite, or at least 2^63 quanta in magnitude
+     */
+    public static CompressedGraph encode(AdjacencyGraph graph, double quantum) {
+        if (!(quantum > 0) || Double.isInfinite(quantum)) {
+            throw new IllegalArgumentException("Weight quantum must be positive: " + quantum);
+        }
+
+        int n = graph.getNumVertices();
+        EdgeCursor cursor = graph.edgeCursor();
+
+        boolean uniform = true;
+        boolean first = true;
+        double shared = 1.0;
+        long slots = 0;
+        int maxDegree = 0;
+        for (int u = 0; u < n; u++) {
+            int degree = 0;
+            cursor.reset(u);
+            while (cursor.next()) {
+                if (first) {
+                    shared = cursor.weight();
+                    first = false;
+                } else if (Double.compare(cursor.weight(), shared) != 0) {
+                    uniform = false;
+                }
+                degree++;
+            }
+            slots += degree;
+            maxDegree = Math.max(maxDegree, degree);
+        }
+
+        int[] offsets = new int[n + 1];
+        ByteSink sink = new ByteSink((int) Math.min(Integer.MAX_VALUE - 8, Math.max(16, slots * 2 + n)));
+        long[] order = new long[maxDegree];
+        int[] neighbours = new int[maxDegree];
+        double[] weights = new double[maxDegree];
+
+        for (int u = 0; u < n; u++) {
+            offsets[u] = sink.size();
+
+            int degree = 0;
+            cursor.reset(u);
+            while (cursor.next()) {
+                neighbours[degree] = cursor.target();
+                weights[degree] = cursor.weight();
+                order[degree] = ((long) cursor.target() << 32) | degree;
+                degree++;
+            }
+            Arrays.sort(order, 0, degree);
+
+            sink.writeVarint(degree);
+            int previous = u;
+            for (int i = 0; i < degree; i++) {
+                int index = (int) order[i];
+                int target = neighbours[index];
+                if (i == 0) {
+                    sink.writeVarint(zigzag((long) target - u));
+                } else {
+                    sink.writeVarint(target - previous);
+                }
+                previous = target;
+
+                if (!uniform) {
+                    sink.writeVarint(zigzag(quantise(weights[index], quantum, u, target)));
+                }
+            }
+        }
+        offsets[n] = sink.size();
+
+        return new CompressedGraph(n, OffHeapGraph.checkEdgeCount(slots), graph.isDirected(), offsets,
+                sink.toArray(), quantum, uniform, shared);
+    }
+
+    private static long quantise(double weight, double quantum, int source, int target) {
+        double scaled = weight / quantum;
+        // Math.round would saturate infinities and huge values and map NaN to 0.
+        if (!(Math.abs(scaled) < 0x1p63)) {
+            throw new IllegalArgumentException(String.format(
+                    "Weight %s of edge %d -> %d cannot be quantised with quantum %s",
+                    weight, source, target, quantum));
+        }
+        return Math.round(scaled);
+    }
+
+    public long getEncodedBytes() {
+        return data.length + 4L * offsets.length;
+    }
+
+    @Override
+    public int getNumVertices() {
+        return numVertices;
+    }
+
+    @Override
+    public boolean isDirected() {
+        return directed;
+    }
+
+    @Override
+    public int getNumEdges() {
+        return directed ? numEdgeSlots : numEdgeSlots / 2;
+    }
+
+    @Override
+    public int getOutDegree(int vertex) {
+        return (int) readVarint(data, offsets[vertex]);
+    }
+
+    /**
+     * Decodes the list up to {@code index}, so this costs O(index); walk
+     * edges with {@link #edgeCursor()} instead.
+     */
+    @Override
+    public int getEdgeTarget(int vertex, int index) {
+        return (int) locate(vertex, index);
+    }
+
+    /**
+     * O(index), like {@link #getEdgeTarget}.
+     */
+    @Override
+    public double getEdgeWeight(int vertex, int index) {
+        if (uniformWeight) {
+            locate(vertex, index);
+            return sharedWeight;
+        }
+        return unzigzag(readVarint(data, (int) (locate(vertex, index) >>> 32))) * quantum;
+    }
+
+    /**
+     * Decodes the first {@code index + 1} targets of {@code vertex} and returns
+     * the target in the low 32 bits and the position of its weight field in the
+     * high 32 bits.
+     */
+    private long locate(int vertex, int index) {
+        int pos = offsets[vertex];
+        int degree = (int) readVarint(data, pos);
+        if (index < 0 || index >= degree) {
+            throw new IndexOutOfBoundsException(
+                    String.format("Edge %d of vertex %d out of range [0, %d)", index, vertex, degree));
+        }
+        pos = skipVarint(data, pos);
+
+        int target = vertex;
+        for (int i = 0; i <= index; i++) {
+            long raw = readVarint(data, pos);
+            pos = skipVarint(data, pos);
+            target = i == 0 ? (int) (target + unzigzag(raw)) : target + (int) raw;
+            if (i < index && !uniformWeight) {
+                pos = skipVarint(data, pos);
+            }
+        }
+        return ((long) pos << 32) | (target & 0xFFFFFFFFL);
+    }
+
+    private static long readVarint(byte[] data, int pos) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data[pos++];
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    private static int skipVarint(byte[] data, int pos) {
+        while (data[pos] < 0) {
+            pos++;
+        }
+        return pos + 1;
+    }
+
+    @Override
+    public EdgeCursor edgeCursor() {
+        return new Cursor();
+    }
+
+    @Override
+    public DerivedCache getDerivedCache() {
+        return derivedCache;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Decodes one record in place. The position token packs the byte offset
+     * of the next edge with the last decoded target, which is all the gap
+     * decoding needs to continue.
+     */
+    private final class Cursor implements EdgeCursor {
+        private int pos;
+        private int start;
+        private int end;
+        private int target;
+        private double weight;
+
+        @Override
+        public void reset(int vertex) {
+            start = skipVarint(data, offsets[vertex]);
+            end = offsets[vertex + 1];
+            pos = start;
+            target = vertex;
+        }
+
+        @Override
+        public boolean next() {
+            if (pos == end) {
+                return false;
+            }
+
+            if (pos == start) {
+                target = (int) (target + unzigzag(readVarint()));
+            } else {
+                target += (int) readVarint();
+            }
+            weight = uniformWeight ? sharedWeight : unzigzag(readVarint()) * quantum;
+            return true;
+        }
+
+        @Override
+        public long position() {
+            return ((long) pos << 32) | (target & 0xFFFFFFFFL);
+        }
+
+        @Override
+        public void resume(int vertex, long position) {
+            start = skipVarint(data, offsets[vertex]);
+            end = offsets[vertex + 1];
+            pos = (int) (position >>> 32);
+            target = (int) position;
+        }
+
+        @Override
+        public int target() {
+            return target;
+        }
+
+        @Override
+        public double weight() {
+            return weight;
+        }
+
+        private long readVarint() {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[pos++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+    }
+
+    private static final class ByteSink {
+        private byte[] bytes;
+        private int size;
+
+        ByteSink(int capacity) {
+            bytes = new byte[capacity];
+        }
+
+        void writeVarint(long value) {
+            if (size + 10 > bytes.length) {
+                long capacity = Math.max(size + 10L, 2L * bytes.length);
+                if (capacity > Integer.MAX_VALUE - 8) {
+                    capacity = Integer.MAX_VALUE - 8;
+                    if (size + 10L > capacity) {
+                        throw new IllegalStateException("Compressed graph exceeds 2 GB");
+                    }
+                }
+                bytes = Arrays.copyOf(bytes, (int) capacity);
+            }
+            while ((value & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        int size() {
+            return size;
+        }
+
+        byte[] toArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CompressedGraph: %d vertices, %d edges, %s, %d bytes",
+                numVertices, getNumEdges(), directed ? "directed" : "undirected", getEncodedBytes());
+    }
+}
@@ -0,0 +1,110 @@
+package com.smartcity.common;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Per-graph store of derived results (SCCs, condensation, topological order).
+ * Entries are tied to the graph's mutation version and are discarded as soon
+ * as the version moves on, so a cached value never outlives the graph state it
+ * was computed from. Cached values are shared and must be treated as read-only.
+ */
+public final class DerivedCache {
+
+    public static final class Key<T> {
+        private final String name;
+
+        public Key(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    private final LongSupplier versionSource;
+    private final Map<Key<?>, Object> values = new HashMap<>();
+    private long cachedVersion;
+
+    public DerivedCache() {
+        this(() -> 0L);
+    }
+
+    public DerivedCache(LongSupplier versionSource) {
+        this.versionSource = versionSource;
+        this.cachedVersion = versionSource.getAsLong();
+    }
+
+    /**
+     * Returns the cached value for {@code key}, computing it if absent. The
+     * supplier runs without holding the cache's lock, so nested lookups and
+     * concurrent readers are not blocked; if two threads race, the first value
+     * stored wins. A value is stored only if the graph version did not move
+     * while it was computed, so a result of a since-mutated graph is returned
+     * to its caller but never cached.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T computeIfAbsent(Key<T> key, Supplier<T> supplier) {
+        long version;
+        synchronized (this) {
+            sync();
+            if (values.containsKey(key)) {
+                return (T) values.get(key);
+            }
+            version = cachedVersion;
+        }
+
+        T value = supplier.get();
+
+        synchronized (this) {
+            sync();
+            if (cachedVersion != version) {
+                return value;
+            }
+            if (values.containsKey(key)) {
+                return (T) values.get(key);
+            }
+            values.put(key, value);
+            return value;
+        }
+    }
+
+    /**
+     * The graph's current mutation version; constant for immutable graphs.
+     * Lets holders of a cached value tell whether it still describes the graph.
+     */
+    public long currentVersion() {
+        return versionSource.getAsLong();
+    }
+
+    /**
+     * Returns the cached value for {@code key}, or null if none is cached for
+     * the current graph version. Never computes anything.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <T> T getIfPresent(Key<T> key) {
+        sync();
+        return (T) values.get(key);
+    }
+
+    public synchronized boolean contains(Key<?> key) {
+        sync();
+        return values.containsKey(key);
+    }
+
+    public synchronized void invalidate() {
+        values.clear();
+    }
+
+    private void sync() {
+        long version = versionSource.getAsLong();
+        if (version != cachedVersion) {
+            values.clear();
+            cachedVersion = version;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.smartcity.common;
+
+/**
+ * Reusable, allocation-free cursor over the out-edges of one vertex at a time.
+ * Obtain one per traversal with {@link AdjacencyGraph#edgeCursor()} and
+ * {@link #reset(int)} it for every vertex.
+ */
+public interface EdgeCursor {
+
+    void reset(int vertex);
+
+    boolean next();
+
+    int target();
+
+    double weight();
+
+    /**
+     * Opaque token for the cursor's place in the current vertex's edges.
+     */
+    long position();
+
+    /**
+     * Moves the cursor back to {@code vertex} at a place returned by
+     * {@link #position()}, so an iterative depth-first search can leave a
+     * vertex's edges and pick them up again in O(1) instead of through
+     * positional access.
+     */
+    void resume(int vertex, long position);
+}
@@ -0,0 +1,90 @@
+package com.smartcity.common;
+
+import java.util.Arrays;
+
+/**
+ * Growable primitive edge list used while ingesting edges whose final count
+ * is not yet known. Twelve bytes per edge plus slack from doubling.
+ */
+final class EdgeList {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int[] from;
+    private int[] to;
+    private double[] weights;
+    private int size;
+
+    EdgeList() {
+        this(INITIAL_CAPACITY);
+    }
+
+    EdgeList(int capacity) {
+        capacity = Math.max(capacity, 1);
+        this.from = new int[capacity];
+        this.to = new int[capacity];
+        this.weights = new double[capacity];
+    }
+
+    void add(int u, int v, double weight) {
+        if (size == from.length) {
+            grow(size + 1);
+        }
+        from[size] = u;
+        to[size] = v;
+        weights[size] = weight;
+        size++;
+    }
+
+    void addAll(int[] sources, int[] targets, double[] edgeWeights, int offset, int length) {
+        if (size + length > from.length) {
+            grow(size + length);
+        }
+        System.arraycopy(sources, offset, from, size, length);
+        System.arraycopy(targets, offset, to, size, length);
+        if (edgeWeights != null) {
+            System.arraycopy(edgeWeights, offset, weights, size, length);
+        } else {
+            Arrays.fill(weights, size, size + length, 1.0);
+        }
+        size += length;
+    }
+
+    private void grow(int minCapacity) {
+        int capacity = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(minCapacity, 2L * from.length));
+        if (capacity < minCapacity) {
+            throw new IllegalStateException("Edge list capacity exceeded: " + minCapacity);
+        }
+        from = Arrays.copyOf(from, capacity);
+        to = Arrays.copyOf(to, capacity);
+        weights = Arrays.copyOf(weights, capacity);
+    }
+
+    int[] fromArray() {
+        return from;
+    }
+
+    int[] toArray() {
+        return to;
+    }
+
+    double[] weightArray() {
+        return weights;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int from(int index) {
+        return from[index];
+    }
+
+    int to(int index) {
+        return to[index];
+    }
+
+    double weight(int index) {
+        return weights[index];
+    }
+}
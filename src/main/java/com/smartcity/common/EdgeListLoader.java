@@ -0,0 +1,278 @@
+package com.smartcity.common;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Parallel parser for flat {@code u<sep>v[<sep>w]} edge lists, where the
+ * separator is a tab, comma or spaces. The file is cut into line-aligned byte
+ * ranges, each range is memory-mapped and parsed on its own thread into a
+ * primitive {@link EdgeList}, and the parts are merged into CSR in file order.
+ * Blank lines and lines starting with {@code #} or {@code %} are ignored.
+ */
+final class EdgeListLoader {
+
+    private static final long MAX_RANGE_BYTES = 256L << 20;
+    private static final int BOUNDARY_SCAN_BYTES = 4096;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+    private EdgeListLoader() {
+    }
+
+    static CSRGraph load(String filePath, int numVertices, boolean directed, int threads) throws IOException {
+        try (FileChannel channel = FileChannel.open(Path.of(filePath), StandardOpenOption.READ)) {
+            long[] bounds = splitRanges(channel, threads);
+            int ranges = bounds.length - 1;
+
+            List<EdgeList> parts = new ArrayList<>(ranges);
+            int maxVertex = -1;
+
+            if (ranges == 1) {
+                RangeResult result = parseRange(channel, bounds[0], bounds[1]);
+                parts.add(result.edges);
+                maxVertex = result.maxVertex;
+            } else {
+                ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, ranges));
+                try {
+                    List<Future<RangeResult>> futures = new ArrayList<>(ranges);
+                    for (int i = 0; i < ranges; i++) {
+                        long start = bounds[i];
+                        long end = bounds[i + 1];
+                        futures.add(executor.submit(() -> parseRange(channel, start, end)));
+                    }
+                    for (Future<RangeResult> future : futures) {
+                        RangeResult result = future.get();
+                        parts.add(result.edges);
+                        maxVertex = Math.max(maxVertex, result.maxVertex);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while loading " + filePath, e);
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof IOException) {
+                        throw (IOException) e.getCause();
+                    }
+                    throw new IOException("Failed to parse " + filePath, e.getCause());
+                } finally {
+                    executor.shutdownNow();
+                }
+            }
+
+            int n = numVertices >= 0 ? numVertices : maxVertex + 1;
+            return CSRGraph.fromEdgeLists(n, directed, parts);
+        }
+    }
+
+    private static long[] splitRanges(FileChannel channel, int threads) throws IOException {
+        long size = channel.size();
+        int ranges = (int) Math.max(1, Math.min(
+                Math.max((long) threads * 4, (size + MAX_RANGE_BYTES - 1) / MAX_RANGE_BYTES),
+                size / BOUNDARY_SCAN_BYTES + 1));
+
+        long[] bounds = new long[ranges + 1];
+        bounds[ranges] = size;
+        ByteBuffer scan = ByteBuffer.allocate(BOUNDARY_SCAN_BYTES);
+
+        for (int i = 1; i < ranges; i++) {
+            long position = Math.max(bounds[i - 1], size / ranges * i);
+            bounds[i] = nextLineStart(channel, scan, position, size);
+        }
+        return bounds;
+    }
+
+    private static long nextLineStart(FileChannel channel, ByteBuffer scan, long position, long size)
+            throws IOException {
+        if (position == 0) {
+            return 0;
+        }
+        position--;
+        while (position < size) {
+            scan.clear();
+            int read = channel.read(scan, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (scan.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static RangeResult parseRange(FileChannel channel, long start, long end) throws IOException {
+        EdgeList edges = new EdgeList((int) Math.min(Integer.MAX_VALUE - 8, Math.max(16, (end - start) / 12)));
+        int maxVertex = -1;
+        if (end <= start) {
+            return new RangeResult(edges, maxVertex);
+        }
+
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        int limit = buffer.limit();
+        int pos = 0;
+
+        while (pos < limit) {
+            int lineStart = pos;
+            pos = skipBlanks(buffer, pos, limit);
+            if (pos >= limit) {
+                break;
+            }
+            byte first = buffer.get(pos);
+            if (first == '\n' || first == '\r' || first == '#' || first == '%') {
+                pos = skipLine(buffer, pos, limit);
+                continue;
+            }
+
+            long u = 0;
+            int digits = 0;
+            while (pos < limit && isDigit(buffer.get(pos))) {
+                u = u * 10 + (buffer.get(pos++) - '0');
+                digits++;
+            }
+            pos = skipSeparators(buffer, pos, limit);
+
+            long v = 0;
+            int vDigits = 0;
+            while (pos < limit && isDigit(buffer.get(pos))) {
+                v = v * 10 + (buffer.get(pos++) - '0');
+                vDigits++;
+            }
+            if (digits == 0 || vDigits == 0 || digits > 10 || vDigits > 10
+                    || u > Integer.MAX_VALUE || v > Integer.MAX_VALUE) {
+                throw malformed(start + lineStart);
+            }
+
+            double weight = 1.0;
+            pos = skipSeparators(buffer, pos, limit);
+            if (pos < limit && !isLineEnd(buffer.get(pos))) {
+                int weightStart = pos;
+                while (pos < limit && !isLineEnd(buffer.get(pos)) && !isSeparator(buffer.get(pos))) {
+                    pos++;
+                }
+                weight = parseDouble(buffer, weightStart, pos, start + lineStart);
+            }
+
+            pos = skipSeparators(buffer, pos, limit);
+            if (pos < limit && !isLineEnd(buffer.get(pos))) {
+                throw malformed(start + lineStart);
+            }
+            pos = skipLine(buffer, pos, limit);
+
+            edges.add((int) u, (int) v, weight);
+            maxVertex = Math.max(maxVertex, (int) Math.max(u, v));
+        }
+
+        return new RangeResult(edges, maxVertex);
+    }
+
+    private static double parseDouble(ByteBuffer buffer, int from, int to, long lineOffset) throws IOException {
+        int pos = from;
+        boolean negative = false;
+        if (buffer.get(pos) == '-' || buffer.get(pos) == '+') {
+            negative = buffer.get(pos) == '-';
+            pos++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int significant = 0;
+        int fractionDigits = 0;
+        boolean seenDot = false;
+        boolean fast = pos < to;
+
+        for (; pos < to && fast; pos++) {
+            byte b = buffer.get(pos);
+            if (isDigit(b)) {
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+                if (mantissa != 0) {
+                    significant++;
+                }
+                if (seenDot) {
+                    fractionDigits++;
+                }
+            } else if (b == '.' && !seenDot) {
+                seenDot = true;
+            } else {
+                fast = false;
+            }
+        }
+
+        // Without a digit ("." or "-.") the text is not a number; leave it to
+        // Double.parseDouble to reject.
+        if (fast && digits > 0 && significant <= 15 && fractionDigits < POWERS_OF_TEN.length) {
+            double value = mantissa / POWERS_OF_TEN[fractionDigits];
+            return negative ? -value : value;
+        }
+
+        byte[] text = new byte[to - from];
+        buffer.get(from, text);
+        try {
+            return Double.parseDouble(new String(text, StandardCharsets.US_ASCII));
+        } catch (NumberFormatException e) {
+            throw malformed(lineOffset);
+        }
+    }
+
+    private static IOException malformed(long offset) {
+        return new IOException("Malformed edge line at byte offset " + offset);
+    }
+
+    private static int skipBlanks(ByteBuffer buffer, int pos, int limit) {
+        while (pos < limit && (buffer.get(pos) == ' ' || buffer.get(pos) == '\t')) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static int skipSeparators(ByteBuffer buffer, int pos, int limit) {
+        while (pos < limit && isSeparator(buffer.get(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static int skipLine(ByteBuffer buffer, int pos, int limit) {
+        while (pos < limit && buffer.get(pos) != '\n') {
+            pos++;
+        }
+        return pos + 1;
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    private static boolean isSeparator(byte b) {
+        return b == '\t' || b == ',' || b == ' ' || b == ';';
+    }
+
+    private static boolean isLineEnd(byte b) {
+        return b == '\n' || b == '\r';
+    }
+
+    private static final class RangeResult {
+        final EdgeList edges;
+        final int maxVertex;
+
+        RangeResult(EdgeList edges, int maxVertex) {
+            this.edges = edges;
+            this.maxVertex = maxVertex;
+        }
+    }
+}
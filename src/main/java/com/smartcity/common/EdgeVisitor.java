@@ -0,0 +1,7 @@
+package com.smartcity.common;
+
+@FunctionalInterface
+public interface EdgeVisitor {
+
+    void visit(int target, double weight);
+}
@@ -1,8 +1,11 @@
 package com.smartcity.common;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
-public class Graph {
+public class Graph implements AdjacencyGraph {
     public static class Edge {
         public final int from;
         public final int to;
@@ -24,29 +27,40 @@ public class Graph {
         }
     }
 
+    private static final int[] NO_TARGETS = new int[0];
+    private static final double[] NO_WEIGHTS = new double[0];
+    private static final int INITIAL_CAPACITY = 4;
+
     private final int numVertices;
-    private final List<Edge>[] adjacencyList;
+    private final int[][] targets;
+    private final double[][] weights;
+    private final int[] outDegree;
+    private final int[] inDegree;
     private final boolean directed;
+    private final DerivedCache derivedCache = new DerivedCache(this::getVersion);
+    private long version;
 
-    @SuppressWarnings("unchecked")
     public Graph(int numVertices, boolean directed) {
         this.numVertices = numVertices;
         this.directed = directed;
-        this.adjacencyList = new List[numVertices];
+        this.targets = new int[numVertices][];
+        this.weights = new double[numVertices][];
+        this.outDegree = new int[numVertices];
+        this.inDegree = new int[numVertices];
 
-        for (int i = 0; i < numVertices; i++) {
-            this.adjacencyList[i] = new java.util.ArrayList<>();
-        }
+        Arrays.fill(targets, NO_TARGETS);
+        Arrays.fill(weights, NO_WEIGHTS);
     }
 
     public void addEdge(int from, int to, double weight) {
         validateVertex(from);
         validateVertex(to);
 
-        adjacencyList[from].add(new Edge(from, to, weight));
+        version++;
+        append(from, to, weight);
 
         if (!directed) {
-            adjacencyList[to].add(new Edge(to, from, weight));
+            append(to, from, weight);
         }
     }
 
@@ -54,23 +68,101 @@ public class Graph {
         addEdge(from, to, 1.0);
     }
 
+    private void append(int from, int to, double weight) {
+        int size = outDegree[from];
+        if (size == targets[from].length) {
+            int capacity = Math.max(INITIAL_CAPACITY, size * 2);
+            targets[from] = Arrays.copyOf(targets[from], capacity);
+            weights[from] = Arrays.copyOf(weights[from], capacity);
+        }
+        targets[from][size] = to;
+        weights[from][size] = weight;
+        outDegree[from] = size + 1;
+        inDegree[to]++;
+    }
+
+    /**
+     * Returns a read-only snapshot of the out-edges of {@code vertex}, built on
+     * every call. Edges are no longer stored as objects, so this allocates one
+     * {@link Edge} per edge.
+     *
+     * @deprecated walk edges with {@link #edgeCursor()} or
+     *             {@link #forEachEdge(int, EdgeVisitor)} instead
+     */
+    @Deprecated
     public List<Edge> getEdges(int vertex) {
         validateVertex(vertex);
-        return adjacencyList[vertex];
+        int degree = outDegree[vertex];
+        List<Edge> edges = new ArrayList<>(degree);
+        for (int i = 0; i < degree; i++) {
+            edges.add(new Edge(vertex, targets[vertex][i], weights[vertex][i]));
+        }
+        return Collections.unmodifiableList(edges);
+    }
+
+    @Override
+    public int getOutDegree(int vertex) {
+        return outDegree[vertex];
+    }
+
+    public int getInDegree(int vertex) {
+        return inDegree[vertex];
+    }
+
+    @Override
+    public int[] getInDegrees() {
+        return inDegree.clone();
     }
 
+    @Override
+    public int getEdgeTarget(int vertex, int index) {
+        return targets[vertex][index];
+    }
+
+    @Override
+    public double getEdgeWeight(int vertex, int index) {
+        return weights[vertex][index];
+    }
+
+    @Override
+    public EdgeCursor edgeCursor() {
+        return new Cursor();
+    }
+
+    @Override
+    public void forEachEdge(int vertex, EdgeVisitor visitor) {
+        int[] vertexTargets = targets[vertex];
+        double[] vertexWeights = weights[vertex];
+        int degree = outDegree[vertex];
+        for (int i = 0; i < degree; i++) {
+            visitor.visit(vertexTargets[i], vertexWeights[i]);
+        }
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public DerivedCache getDerivedCache() {
+        return derivedCache;
+    }
+
+    @Override
     public int getNumVertices() {
         return numVertices;
     }
 
+    @Override
     public boolean isDirected() {
         return directed;
     }
 
+    @Override
     public int getNumEdges() {
         int count = 0;
         for (int i = 0; i < numVertices; i++) {
-            count += adjacencyList[i].size();
+            count += outDegree[i];
         }
         return directed ? count : count / 2;
     }
@@ -82,14 +174,62 @@ public class Graph {
         }
     }
 
+    private final class Cursor implements EdgeCursor {
+        private int[] vertexTargets = NO_TARGETS;
+        private double[] vertexWeights = NO_WEIGHTS;
+        private int index;
+        private int degree;
+
+        @Override
+        public void reset(int vertex) {
+            vertexTargets = targets[vertex];
+            vertexWeights = weights[vertex];
+            degree = outDegree[vertex];
+            index = -1;
+        }
+
+        @Override
+        public boolean next() {
+            return ++index < degree;
+        }
+
+        @Override
+        public int target() {
+            return vertexTargets[index];
+        }
+
+        @Override
+        public double weight() {
+            return vertexWeights[index];
+        }
+
+        @Override
+        public long position() {
+            return index;
+        }
+
+        @Override
+        public void resume(int vertex, long position) {
+            reset(vertex);
+            index = (int) position;
+        }
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
         sb.append(String.format("Graph: %d vertices, %d edges, %s\n",
                 numVertices, getNumEdges(), directed ? "directed" : "undirected"));
 
-        for (int i = 0; i < numVertices; i++) {
-            sb.append(String.format("Vertex %d: %s\n", i, adjacencyList[i]));
+        for (int u = 0; u < numVertices; u++) {
+            sb.append(String.format("Vertex %d: [", u));
+            for (int i = 0; i < outDegree[u]; i++) {
+                if (i > 0) {
+                    sb.append(", ");
+                }
+                sb.append(String.format("(%d -> %d, w=%.2f)", u, targets[u][i], weights[u][i]));
+            }
+            sb.append("]\n");
         }
 
         return sb.toString();
@@ -0,0 +1,220 @@
+package com.smartcity.common;
+
+import java.util.Arrays;
+
+/**
+ * Bulk builder that collects edges in primitive batches and lays them out as a
+ * {@link CSRGraph} with linear-time counting sorts: one pass to count
+ * out-degrees and one to place edges. Sorting neighbour lists adds one stable
+ * counting pass by target beforehand, and merging parallel edges one compaction
+ * pass afterwards, so construction stays O(V + E) with no per-edge objects.
+ */
+public class GraphBuilder {
+
+    private final int numVertices;
+    private final boolean directed;
+    private final EdgeList edges;
+
+    private boolean sortNeighbors;
+    private WeightAggregation mergePolicy;
+
+    public GraphBuilder(int numVertices, boolean directed) {
+        this(numVertices, directed, 16);
+    }
+
+    public GraphBuilder(int numVertices, boolean directed, int expectedEdges) {
+        if (numVertices < 0) {
+            throw new IllegalArgumentException("Number of vertices must be non-negative: " + numVertices);
+        }
+        this.numVertices = numVertices;
+        this.directed = directed;
+        this.edges = new EdgeList(expectedEdges);
+    }
+
+    public GraphBuilder addEdge(int from, int to, double weight) {
+        validateVertex(from);
+        validateVertex(to);
+        edges.add(from, to, weight);
+        return this;
+    }
+
+    public GraphBuilder addEdges(int[] from, int[] to, double[] weights) {
+        return addEdges(from, to, weights, 0, from.length);
+    }
+
+    /**
+     * Appends {@code length} edges starting at {@code offset}. A {@code null}
+     * weights array gives every edge weight 1.0.
+     */
+    public GraphBuilder addEdges(int[] from, int[] to, double[] weights, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > from.length || offset + length > to.length
+                || (weights != null && offset + length > weights.length)) {
+            throw new IllegalArgumentException(String.format(
+                    "Batch range [%d, %d) exceeds the supplied arrays", offset, offset + length));
+        }
+        for (int i = offset; i < offset + length; i++) {
+            validateVertex(from[i]);
+            validateVertex(to[i]);
+        }
+        edges.addAll(from, to, weights, offset, length);
+        return this;
+    }
+
+    public GraphBuilder sortNeighbors(boolean sort) {
+        this.sortNeighbors = sort;
+        return this;
+    }
+
+    /**
+     * Collapses parallel edges into one, combining their weights with the
+     * given policy. Merged graphs always have sorted neighbour lists.
+     * Pass {@code null} to keep parallel edges (the default).
+     */
+    public GraphBuilder mergeParallelEdges(WeightAggregation policy) {
+        this.mergePolicy = policy;
+        return this;
+    }
+
+    public int getNumEdgesAdded() {
+        return edges.size();
+    }
+
+    public CSRGraph build() {
+        int m = edges.size();
+        int[] from = edges.fromArray();
+        int[] to = edges.toArray();
+        double[] weights = edges.weightArray();
+
+        if (mergePolicy != null) {
+            if (!directed) {
+                int[] low = new int[m];
+                int[] high = new int[m];
+                for (int i = 0; i < m; i++) {
+                    low[i] = Math.min(from[i], to[i]);
+                    high[i] = Math.max(from[i], to[i]);
+                }
+                from = low;
+                to = high;
+            }
+
+            Layout merged = layout(from, to, weights, m, true).merge(mergePolicy);
+            if (directed) {
+                return merged.toGraph(true);
+            }
+
+            m = merged.targets.length;
+            from = merged.sources();
+            to = merged.targets;
+            weights = merged.weights;
+        }
+
+        if (directed) {
+            return layout(from, to, weights, m, sortNeighbors).toGraph(true);
+        }
+
+        int[] slotFrom = Arrays.copyOf(from, 2 * m);
+        int[] slotTo = Arrays.copyOf(to, 2 * m);
+        double[] slotWeights = Arrays.copyOf(weights, 2 * m);
+        System.arraycopy(to, 0, slotFrom, m, m);
+        System.arraycopy(from, 0, slotTo, m, m);
+        System.arraycopy(weights, 0, slotWeights, m, m);
+
+        return layout(slotFrom, slotTo, slotWeights, 2 * m, sortNeighbors || mergePolicy != null)
+                .toGraph(false);
+    }
+
+    private Layout layout(int[] from, int[] to, double[] weights, int m, boolean sort) {
+        if (sort) {
+            int[] byTarget = countingOffsets(to, m);
+            int[] sortedFrom = new int[m];
+            int[] sortedTo = new int[m];
+            double[] sortedWeights = new double[m];
+            for (int i = 0; i < m; i++) {
+                int pos = byTarget[to[i]]++;
+                sortedFrom[pos] = from[i];
+                sortedTo[pos] = to[i];
+                sortedWeights[pos] = weights[i];
+            }
+            from = sortedFrom;
+            to = sortedTo;
+            weights = sortedWeights;
+        }
+
+        int[] offsets = countingOffsets(from, m);
+        int[] next = Arrays.copyOf(offsets, numVertices);
+        int[] targets = new int[m];
+        double[] edgeWeights = new double[m];
+        for (int i = 0; i < m; i++) {
+            int pos = next[from[i]]++;
+            targets[pos] = to[i];
+            edgeWeights[pos] = weights[i];
+        }
+
+        return new Layout(offsets, targets, edgeWeights);
+    }
+
+    private int[] countingOffsets(int[] keys, int m) {
+        int[] offsets = new int[numVertices + 1];
+        for (int i = 0; i < m; i++) {
+            offsets[keys[i] + 1]++;
+        }
+        for (int v = 0; v < numVertices; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        return offsets;
+    }
+
+    private void validateVertex(int vertex) {
+        if (vertex < 0 || vertex >= numVertices) {
+            throw new IllegalArgumentException(
+                    String.format("Vertex %d is out of range [0, %d)", vertex, numVertices));
+        }
+    }
+
+    private final class Layout {
+        final int[] offsets;
+        final int[] targets;
+        final double[] weights;
+
+        Layout(int[] offsets, int[] targets, double[] weights) {
+            this.offsets = offsets;
+            this.targets = targets;
+            this.weights = weights;
+        }
+
+        Layout merge(WeightAggregation policy) {
+            int[] mergedOffsets = new int[numVertices + 1];
+            int[] mergedTargets = new int[targets.length];
+            double[] mergedWeights = new double[targets.length];
+            int size = 0;
+
+            for (int u = 0; u < numVertices; u++) {
+                int start = size;
+                for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                    if (size > start && mergedTargets[size - 1] == targets[e]) {
+                        mergedWeights[size - 1] = policy.combine(mergedWeights[size - 1], weights[e]);
+                    } else {
+                        mergedTargets[size] = targets[e];
+                        mergedWeights[size] = policy.initial(weights[e]);
+                        size++;
+                    }
+                }
+                mergedOffsets[u + 1] = size;
+            }
+
+            return new Layout(mergedOffsets, Arrays.copyOf(mergedTargets, size), Arrays.copyOf(mergedWeights, size));
+        }
+
+        int[] sources() {
+            int[] sources = new int[targets.length];
+            for (int u = 0; u < numVertices; u++) {
+                Arrays.fill(sources, offsets[u], offsets[u + 1], u);
+            }
+            return sources;
+        }
+
+        CSRGraph toGraph(boolean directedGraph) {
+            return new CSRGraph(numVertices, directedGraph, offsets, targets, weights);
+        }
+    }
+}
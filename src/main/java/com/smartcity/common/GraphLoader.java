@@ -1,24 +1,334 @@
 package com.smartcity.common;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 public class GraphLoader {
 
     private static final ObjectMapper objectMapper = new ObjectMapper();
 
+    static final int BINARY_MAGIC = 0x53434742;
+    static final int BINARY_VERSION = 1;
+    static final int BINARY_HEADER_BYTES = 32;
+    private static final int FLAG_DIRECTED = 1;
+    private static final int WRITE_BUFFER_BYTES = 1 << 20;
+
     public static GraphData loadGraphData(String filePath) throws IOException {
         return objectMapper.readValue(new File(filePath), GraphData.class);
     }
 
     public static Graph loadGraph(String filePath) throws IOException {
-        GraphData data = loadGraphData(filePath);
-        return data.toGraph();
+        return streamGraph(filePath);
+    }
+
+    /**
+     * Reads the {@code {directed, n, edges:[{u,v,w}], source, weight_model}}
+     * schema token by token, without materialising {@link GraphData}. When
+     * {@code directed} and {@code n} precede {@code edges}, as in every dataset
+     * we ship, edges go straight into the graph. If either comes after
+     * {@code edges} or is missing, the whole edge array is first buffered in
+     * an {@code EdgeList}, about 16 bytes per edge, and copied once the object
+     * ends. Unknown fields are skipped, and missing fields take the same
+     * defaults as {@link GraphData} ({@code directed} true, {@code n} 0,
+     * {@code u} and {@code v} 0, {@code w} 1.0).
+     */
+    public static Graph streamGraph(String filePath) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(new File(filePath))) {
+            expect(parser, parser.nextToken(), JsonToken.START_OBJECT);
+
+            boolean directed = true;
+            boolean directedSeen = false;
+            int numVertices = -1;
+            Graph graph = null;
+            EdgeList pending = null;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+
+                switch (field) {
+                    case "directed":
+                        directed = parser.getBooleanValue();
+                        directedSeen = true;
+                        break;
+                    case "n":
+                        numVertices = parser.getIntValue();
+                        break;
+                    case "edges":
+                        if (value == JsonToken.VALUE_NULL) {
+                            break;
+                        }
+                        expect(parser, value, JsonToken.START_ARRAY);
+                        if (numVertices >= 0 && directedSeen) {
+                            graph = new Graph(numVertices, directed);
+                            readEdges(parser, graph, null);
+                        } else {
+                            pending = new EdgeList();
+                            readEdges(parser, null, pending);
+                        }
+                        break;
+                    default:
+                        parser.skipChildren();
+                        break;
+                }
+            }
+
+            if (graph == null) {
+                graph = new Graph(Math.max(numVertices, 0), directed);
+            }
+            if (pending != null) {
+                for (int i = 0; i < pending.size(); i++) {
+                    graph.addEdge(pending.from(i), pending.to(i), pending.weight(i));
+                }
+            }
+            return graph;
+        }
+    }
+
+    /**
+     * Loads a flat {@code u<TAB>v<TAB>w} edge list (commas or spaces also
+     * accepted, weight optional) using every available core. Edges keep
+     * their file order within each vertex's adjacency.
+     */
+    public static CSRGraph loadEdgeList(String filePath, int numVertices, boolean directed) throws IOException {
+        return EdgeListLoader.load(filePath, numVertices, directed, Runtime.getRuntime().availableProcessors());
+    }
+
+    public static CSRGraph loadEdgeList(String filePath, boolean directed) throws IOException {
+        return EdgeListLoader.load(filePath, -1, directed, Runtime.getRuntime().availableProcessors());
+    }
+
+    private static void readEdges(JsonParser parser, Graph graph, EdgeList pending) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            expect(parser, token, JsonToken.START_OBJECT);
+
+            int from = 0;
+            int to = 0;
+            double weight = 1.0;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+                switch (field) {
+                    case "u":
+                        from = parser.getIntValue();
+                        break;
+                    case "v":
+                        to = parser.getIntValue();
+                        break;
+                    case "w":
+                        weight = parser.getDoubleValue();
+                        break;
+                    default:
+                        parser.skipChildren();
+                        break;
+                }
+            }
+
+            if (graph != null) {
+                graph.addEdge(from, to, weight);
+            } else {
+                pending.add(from, to, weight);
+            }
+        }
+    }
+
+    private static void expect(JsonParser parser, JsonToken actual, JsonToken expected) throws IOException {
+        if (actual != expected) {
+            throw new IOException(String.format("Expected %s but found %s at %s",
+                    expected, actual, parser.getCurrentLocation()));
+        }
     }
 
     public static void saveGraphData(GraphData graphData, String filePath) throws IOException {
         objectMapper.writerWithDefaultPrettyPrinter()
                 .writeValue(new File(filePath), graphData);
     }
+
+    /**
+     * Writes the graph in the little-endian binary layout read by
+     * {@link #loadBinaryGraph(String)}: a 32-byte header (magic, version,
+     * flags, vertex count, edge slot count) followed by the CSR offsets,
+     * targets and weights sections, each padded to an 8-byte boundary.
+     */
+    public static void saveBinaryGraph(AdjacencyGraph graph, String filePath) throws IOException {
+        int n = graph.getNumVertices();
+        long m = 0;
+        for (int u = 0; u < n; u++) {
+            m += graph.getOutDegree(u);
+        }
+        OffHeapGraph.checkEdgeCount(m);
+
+        try (FileChannel channel = FileChannel.open(Path.of(filePath),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+
+            buffer.putInt(BINARY_MAGIC);
+            buffer.putInt(BINARY_VERSION);
+            buffer.putInt(graph.isDirected() ? FLAG_DIRECTED : 0);
+            buffer.putInt(n);
+            buffer.putLong(m);
+            buffer.putLong(0L);
+
+            int offset = 0;
+            for (int u = 0; u <= n; u++) {
+                flushIfFull(channel, buffer, Integer.BYTES);
+                buffer.putInt(offset);
+                if (u < n) {
+                    offset += graph.getOutDegree(u);
+                }
+            }
+            pad(channel, buffer, (n + 1L) * Integer.BYTES);
+
+            EdgeCursor cursor = graph.edgeCursor();
+            for (int u = 0; u < n; u++) {
+                cursor.reset(u);
+                while (cursor.next()) {
+                    flushIfFull(channel, buffer, Integer.BYTES);
+                    buffer.putInt(cursor.target());
+                }
+            }
+            pad(channel, buffer, m * Integer.BYTES);
+
+            for (int u = 0; u < n; u++) {
+                cursor.reset(u);
+                while (cursor.next()) {
+                    flushIfFull(channel, buffer, Double.BYTES);
+                    buffer.putDouble(cursor.weight());
+                }
+            }
+
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Memory-maps a file written by {@link #saveBinaryGraph(AdjacencyGraph, String)}.
+     * No edge data is copied: pages load lazily on first access and are shared
+     * through the page cache with every other process mapping the same file.
+     * Only O(1) checks run: the header against the file size, and the first
+     * and last offsets against 0 and the edge count. Use
+     * {@link #loadBinaryGraph(String, boolean)} to validate untrusted files.
+     */
+    public static OffHeapGraph loadBinaryGraph(String filePath) throws IOException {
+        return loadBinaryGraph(filePath, false);
+    }
+
+    /**
+     * As {@link #loadBinaryGraph(String)}. With {@code fullScan} set, one
+     * O(V + E) pass also checks that the offsets never decrease and that every
+     * target is a valid vertex. That pass faults in every page of the offsets
+     * and targets sections, so on a multi-gigabyte file it takes seconds
+     * rather than milliseconds. Without it, a corrupt file can make traversals
+     * fail with index errors.
+     */
+    public static OffHeapGraph loadBinaryGraph(String filePath, boolean fullScan) throws IOException {
+        try (FileChannel channel = FileChannel.open(Path.of(filePath), StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < BINARY_HEADER_BYTES) {
+                throw new IOException("Not a binary graph file (too short): " + filePath);
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(BINARY_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) {
+                    throw new IOException("Unexpected end of file: " + filePath);
+                }
+            }
+            header.flip();
+
+            if (header.getInt() != BINARY_MAGIC) {
+                throw new IOException("Not a binary graph file (bad magic): " + filePath);
+            }
+            int version = header.getInt();
+            if (version != BINARY_VERSION) {
+                throw new IOException("Unsupported binary graph version " + version + ": " + filePath);
+            }
+            boolean directed = (header.getInt() & FLAG_DIRECTED) != 0;
+            int n = header.getInt();
+            long m = header.getLong();
+
+            long offsetsBytes = (n + 1L) * Integer.BYTES;
+            long targetsStart = BINARY_HEADER_BYTES + align(offsetsBytes);
+            long weightsStart = targetsStart + align(m * Integer.BYTES);
+            long expectedSize = weightsStart + m * Double.BYTES;
+
+            if (n < 0 || m < 0 || m > Integer.MAX_VALUE || fileSize != expectedSize) {
+                throw new IOException(String.format(
+                        "Corrupt binary graph file %s: expected %d bytes, found %d", filePath, expectedSize, fileSize));
+            }
+
+            BufferArray offsets = BufferArray.map(channel, BINARY_HEADER_BYTES, offsetsBytes);
+            BufferArray targets = BufferArray.map(channel, targetsStart, m * Integer.BYTES);
+            BufferArray weights = BufferArray.map(channel, weightsStart, m * Double.BYTES);
+
+            checkBinaryBounds(filePath, n, m, offsets);
+            if (fullScan) {
+                validateBinarySections(filePath, n, offsets, targets);
+            }
+            return new OffHeapGraph(n, (int) m, directed, offsets, targets, weights);
+        }
+    }
+
+    private static void checkBinaryBounds(String filePath, int n, long m, BufferArray offsets) throws IOException {
+        if (offsets.getInt(0) != 0) {
+            throw new IOException(String.format(
+                    "Corrupt binary graph file %s: offsets start at %d, not 0", filePath, offsets.getInt(0)));
+        }
+        if (offsets.getInt(n) != m) {
+            throw new IOException(String.format(
+                    "Corrupt binary graph file %s: offsets end at %d, expected %d", filePath, offsets.getInt(n), m));
+        }
+    }
+
+    private static void validateBinarySections(String filePath, int n, BufferArray offsets, BufferArray targets)
+            throws IOException {
+        long m = offsets.getInt(n);
+        for (int u = 0; u < n; u++) {
+            if (offsets.getInt(u + 1L) < offsets.getInt(u)) {
+                throw new IOException(String.format(
+                        "Corrupt binary graph file %s: offset of vertex %d decreases", filePath, u + 1));
+            }
+        }
+        for (long e = 0; e < m; e++) {
+            int target = targets.getInt(e);
+            if (target < 0 || target >= n) {
+                throw new IOException(String.format(
+                        "Corrupt binary graph file %s: edge %d targets %d outside [0, %d)", filePath, e, target, n));
+            }
+        }
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    private static void pad(FileChannel channel, ByteBuffer buffer, long sectionBytes) throws IOException {
+        for (long i = sectionBytes; i < align(sectionBytes); i++) {
+            flushIfFull(channel, buffer, 1);
+            buffer.put((byte) 0);
+        }
+    }
+
+    private static void flushIfFull(FileChannel channel, ByteBuffer buffer, int needed) throws IOException {
+        if (buffer.remaining() < needed) {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
 }
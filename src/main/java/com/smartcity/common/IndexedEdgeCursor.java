@@ -0,0 +1,47 @@
+package com.smartcity.common;
+
+final class IndexedEdgeCursor implements EdgeCursor {
+
+    private final AdjacencyGraph graph;
+    private int vertex;
+    private int index;
+    private int degree;
+
+    IndexedEdgeCursor(AdjacencyGraph graph) {
+        this.graph = graph;
+    }
+
+    @Override
+    public void reset(int vertex) {
+        this.vertex = vertex;
+        this.index = -1;
+        this.degree = graph.getOutDegree(vertex);
+    }
+
+    @Override
+    public boolean next() {
+        return ++index < degree;
+    }
+
+    @Override
+    public int target() {
+        return graph.getEdgeTarget(vertex, index);
+    }
+
+    @Override
+    public double weight() {
+        return graph.getEdgeWeight(vertex, index);
+    }
+
+    @Override
+    public long position() {
+        return index;
+    }
+
+    @Override
+    public void resume(int vertex, long position) {
+        this.vertex = vertex;
+        this.index = (int) position;
+        this.degree = graph.getOutDegree(vertex);
+    }
+}
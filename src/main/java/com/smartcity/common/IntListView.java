@@ -0,0 +1,51 @@
+package com.smartcity.common;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * Read-only {@code List<Integer>} over a range of an int array. Nothing is
+ * copied; elements are boxed only as they are read.
+ */
+public final class IntListView extends AbstractList<Integer> implements RandomAccess {
+
+    private final int[] array;
+    private final int from;
+    private final int to;
+
+    public IntListView(int[] array) {
+        this(array, 0, array.length);
+    }
+
+    public IntListView(int[] array, int from, int to) {
+        if (from < 0 || to > array.length || from > to) {
+            throw new IllegalArgumentException(
+                    String.format("Range [%d, %d) is out of bounds for length %d", from, to, array.length));
+        }
+        this.array = array;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    public Integer get(int index) {
+        return getInt(index);
+    }
+
+    public int getInt(int index) {
+        if (index < 0 || index >= to - from) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + (to - from));
+        }
+        return array[from + index];
+    }
+
+    @Override
+    public int size() {
+        return to - from;
+    }
+
+    public int[] toIntArray() {
+        return Arrays.copyOfRange(array, from, to);
+    }
+}
@@ -0,0 +1,220 @@
+package com.smartcity.common;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Immutable CSR graph whose offsets, targets and weights live outside the Java
+ * heap in memory-mapped buffers: the graph file for
+ * {@link GraphLoader#loadBinaryGraph(String)}, an unlinked temporary file for
+ * the {@link Builder}. Only this object and the buffer headers are on-heap,
+ * so graphs with hundreds of millions of edges add no old-gen pressure, and
+ * mapped buffers do not count against {@code -XX:MaxDirectMemorySize}.
+ *
+ * {@link #fromGraph} copies a graph that is already on the heap; to build a
+ * graph too large for the heap, stream its edges into a {@link Builder}.
+ */
+public final class OffHeapGraph implements AdjacencyGraph {
+
+    private final int numVertices;
+    private final int numEdgeSlots;
+    private final boolean directed;
+    private final BufferArray offsets;
+    private final BufferArray targets;
+    private final BufferArray weights;
+    private final DerivedCache derivedCache = new DerivedCache();
+
+    OffHeapGraph(int numVertices, int numEdgeSlots, boolean directed,
+            BufferArray offsets, BufferArray targets, BufferArray weights) {
+        this.numVertices = numVertices;
+        this.numEdgeSlots = numEdgeSlots;
+        this.directed = directed;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    public static OffHeapGraph fromGraph(AdjacencyGraph graph) {
+        int n = graph.getNumVertices();
+        long m = 0;
+        for (int u = 0; u < n; u++) {
+            m += graph.getOutDegree(u);
+        }
+
+        Builder builder = new Builder(n, checkEdgeCount(m), graph.isDirected());
+        EdgeCursor cursor = graph.edgeCursor();
+        for (int u = 0; u < n; u++) {
+            cursor.reset(u);
+            while (cursor.next()) {
+                builder.addEdge(u, cursor.target(), cursor.weight());
+            }
+        }
+        return builder.build();
+    }
+
+    static int checkEdgeCount(long numEdgeSlots) {
+        if (numEdgeSlots > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many edges for a single graph: " + numEdgeSlots);
+        }
+        return (int) numEdgeSlots;
+    }
+
+    @Override
+    public DerivedCache getDerivedCache() {
+        return derivedCache;
+    }
+
+    @Override
+    public int getNumVertices() {
+        return numVertices;
+    }
+
+    @Override
+    public boolean isDirected() {
+        return directed;
+    }
+
+    @Override
+    public int getNumEdges() {
+        return directed ? numEdgeSlots : numEdgeSlots / 2;
+    }
+
+    @Override
+    public int getOutDegree(int vertex) {
+        return offsets.getInt(vertex + 1L) - offsets.getInt(vertex);
+    }
+
+    @Override
+    public int getEdgeTarget(int vertex, int index) {
+        return targets.getInt((long) offsets.getInt(vertex) + index);
+    }
+
+    @Override
+    public double getEdgeWeight(int vertex, int index) {
+        return weights.getDouble((long) offsets.getInt(vertex) + index);
+    }
+
+    @Override
+    public EdgeCursor edgeCursor() {
+        return new Cursor();
+    }
+
+    private final class Cursor implements EdgeCursor {
+        private long edge;
+        private long end;
+
+        @Override
+        public void reset(int vertex) {
+            edge = offsets.getInt(vertex) - 1L;
+            end = offsets.getInt(vertex + 1L);
+        }
+
+        @Override
+        public boolean next() {
+            return ++edge < end;
+        }
+
+        @Override
+        public int target() {
+            return targets.getInt(edge);
+        }
+
+        @Override
+        public double weight() {
+            return weights.getDouble(edge);
+        }
+
+        @Override
+        public long position() {
+            return edge;
+        }
+
+        @Override
+        public void resume(int vertex, long position) {
+            edge = position;
+            end = offsets.getInt(vertex + 1L);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("OffHeapGraph: %d vertices, %d edges, %s",
+                numVertices, getNumEdges(), directed ? "directed" : "undirected");
+    }
+
+    /**
+     * Streams edges straight into a memory-mapped temporary file in
+     * {@code java.io.tmpdir}, which needs room for 4(V + 1) + 12E bytes. The
+     * total number of edge slots must be known up front and edges must arrive
+     * grouped by source vertex in non-decreasing order, as in a sorted
+     * edge-list export. Undirected graphs must supply both directions
+     * explicitly.
+     */
+    public static final class Builder {
+        private final int numVertices;
+        private final int numEdgeSlots;
+        private final boolean directed;
+        private final BufferArray offsets;
+        private final BufferArray targets;
+        private final BufferArray weights;
+
+        private int currentVertex;
+        private int size;
+
+        public Builder(int numVertices, int numEdgeSlots, boolean directed) {
+            if (numVertices < 0 || numEdgeSlots < 0) {
+                throw new IllegalArgumentException("Vertex and edge counts must be non-negative");
+            }
+            this.numVertices = numVertices;
+            this.numEdgeSlots = numEdgeSlots;
+            this.directed = directed;
+            BufferArray[] arrays;
+            try {
+                arrays = BufferArray.mapTemporary(4L * (numVertices + 1L), 4L * numEdgeSlots, 8L * numEdgeSlots);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot map off-heap storage for the graph", e);
+            }
+            this.offsets = arrays[0];
+            this.targets = arrays[1];
+            this.weights = arrays[2];
+        }
+
+        public Builder addEdge(int from, int to, double weight) {
+            validateVertex(from);
+            validateVertex(to);
+            if (from < currentVertex) {
+                throw new IllegalStateException(String.format(
+                        "Edges must be added in source order: %d after %d", from, currentVertex));
+            }
+            if (size == numEdgeSlots) {
+                throw new IllegalStateException("Edge capacity exceeded: " + numEdgeSlots);
+            }
+
+            while (currentVertex < from) {
+                offsets.putInt(++currentVertex, size);
+            }
+            targets.putInt(size, to);
+            weights.putDouble(size, weight);
+            size++;
+            return this;
+        }
+
+        public OffHeapGraph build() {
+            if (size != numEdgeSlots) {
+                throw new IllegalStateException(String.format(
+                        "Expected %d edges but %d were added", numEdgeSlots, size));
+            }
+            while (currentVertex < numVertices) {
+                offsets.putInt(++currentVertex, size);
+            }
+            return new OffHeapGraph(numVertices, numEdgeSlots, directed, offsets, targets, weights);
+        }
+
+        private void validateVertex(int vertex) {
+            if (vertex < 0 || vertex >= numVertices) {
+                throw new IllegalArgumentException(
+                        String.format("Vertex %d is out of range [0, %d)", vertex, numVertices));
+            }
+        }
+    }
+}
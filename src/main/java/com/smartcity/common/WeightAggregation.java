@@ -0,0 +1,36 @@
+package com.smartcity.common;
+
+/**
+ * How the weights of parallel edges are combined when they are merged.
+ * {@code FIRST} keeps the weight of the earliest inserted edge; {@code COUNT}
+ * replaces the weights with the number of merged edges.
+ */
+public enum WeightAggregation {
+    FIRST,
+    MIN,
+    MAX,
+    SUM,
+    COUNT;
+
+    /**
+     * The merged weight of a single edge.
+     */
+    public double initial(double weight) {
+        return this == COUNT ? 1.0 : weight;
+    }
+
+    public double combine(double current, double next) {
+        switch (this) {
+            case MIN:
+                return Math.min(current, next);
+            case MAX:
+                return Math.max(current, next);
+            case SUM:
+                return current + next;
+            case COUNT:
+                return current + 1.0;
+            default:
+                return current;
+        }
+    }
+}
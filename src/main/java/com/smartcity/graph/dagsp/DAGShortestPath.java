@@ -1,17 +1,17 @@
 package com.smartcity.graph.dagsp;
 
-import com.smartcity.common.Graph;
+import com.smartcity.common.AdjacencyGraph;
+import com.smartcity.common.EdgeCursor;
 import com.smartcity.common.Metrics;
 import com.smartcity.graph.topo.KahnTopologicalSort;
 import java.util.Arrays;
-import java.util.List;
 
 public class DAGShortestPath {
 
-    private final Graph graph;
+    private final AdjacencyGraph graph;
     private final Metrics metrics;
 
-    public DAGShortestPath(Graph graph, Metrics metrics) {
+    public DAGShortestPath(AdjacencyGraph graph, Metrics metrics) {
         if (!graph.isDirected()) {
             throw new IllegalArgumentException("Algorithm requires a directed graph");
         }
@@ -28,8 +28,7 @@ public class DAGShortestPath {
 
         int n = graph.getNumVertices();
 
-        KahnTopologicalSort topoSort = new KahnTopologicalSort();
-        List<Integer> topoOrder = topoSort.topologicalSort(graph, metrics);
+        int[] topoOrder = KahnTopologicalSort.cachedOrderArray(graph, metrics);
 
         if (topoOrder == null) {
             throw new IllegalArgumentException("Graph contains cycles - not a DAG");
@@ -43,27 +42,37 @@ public class DAGShortestPath {
 
         distances[source] = 0.0;
 
+        int vertexRelaxations = 0;
+        int edgeRelaxations = 0;
+        int distanceUpdates = 0;
+
+        EdgeCursor cursor = graph.edgeCursor();
         for (int u : topoOrder) {
             if (Double.isInfinite(distances[u])) {
                 continue;
             }
 
-            metrics.incrementCounter("vertex_relaxations");
+            vertexRelaxations++;
 
-            for (Graph.Edge edge : graph.getEdges(u)) {
-                int v = edge.to;
-                double newDistance = distances[u] + edge.weight;
+            cursor.reset(u);
+            while (cursor.next()) {
+                int v = cursor.target();
+                double newDistance = distances[u] + cursor.weight();
 
-                metrics.incrementCounter("edge_relaxations");
+                edgeRelaxations++;
 
                 if (newDistance < distances[v]) {
                     distances[v] = newDistance;
                     predecessors[v] = u;
-                    metrics.incrementCounter("distance_updates");
+                    distanceUpdates++;
                 }
             }
         }
 
+        metrics.incrementCounter("vertex_relaxations", vertexRelaxations);
+        metrics.incrementCounter("edge_relaxations", edgeRelaxations);
+        metrics.incrementCounter("distance_updates", distanceUpdates);
+
         metrics.stopTiming("dag_shortest_paths");
 
         return new PathResult(distances, predecessors, source, false);
@@ -0,0 +1,777 @@
+package com.smartcity.graph.scc;
+
+import com.smartcity.common.AdjacencyGraph;
+import com.smartcity.common.EdgeCursor;
+import com.smartcity.common.Metrics;
+import java.util.Arrays;
+import java.util.TreeMap;
+
+/**
+ * SCCs of a live graph, kept up to date as edges are inserted and removed.
+ * Seeded from an {@link SCCResult}, it keeps its own copy of the adjacency, the
+ * condensation (inter-component edges with multiplicities) and a topological
+ * order of the components, all in primitive arrays.
+ *
+ * An insertion that agrees with the order costs O(1); otherwise a Pearce-Kelly
+ * search bounded by the two endpoints' positions finds the components on the
+ * new cycle, merges them and reorders only the visited region. A removal
+ * between components only updates the condensation; a removal inside a
+ * component re-runs Tarjan on that component alone and splits it in place.
+ *
+ * Component ids start as the seed's ids. A merge keeps the id of the largest
+ * merged component and retires the others; a split keeps the id for its
+ * largest piece and takes retired ids for the rest. Positions are spaced
+ * longs so that split pieces fit between their neighbours; when a gap runs
+ * out, all positions are relabelled with room for every piece.
+ */
+public class DynamicSCC {
+
+    private static final int[] NO_CHANGE = new int[0];
+    private static final long GAP = 1L << 20;
+
+    private final Metrics metrics;
+    private final int numVertices;
+
+    private final int[] componentOf;
+    private final int[][] members;
+    private final int[] memberCount;
+    private final Neighbours successors;
+    private final Neighbours predecessors;
+    private final long[] order;
+    private final TreeMap<Long, Integer> byPosition = new TreeMap<>();
+    private final int[] freeIds;
+    private int freeCount;
+    private int numComponents;
+
+    private final int[][] outEdges;
+    private final int[] outCount;
+    private final int[][] inEdges;
+    private final int[] inCount;
+
+    private final int[] forwardMark;
+    private final int[] backwardMark;
+    private int stamp;
+
+    private final int[] gatherMark;
+    private final int[] gatherSlot;
+    private int gatherStamp;
+
+    private final int[] discoveryTime;
+    private final int[] lowLink;
+    private final int[] nextEdge;
+
+    public DynamicSCC(AdjacencyGraph graph, SCCResult seed, Metrics metrics) {
+        if (!graph.isDirected()) {
+            throw new IllegalArgumentException("SCC algorithm requires a directed graph");
+        }
+        this.metrics = metrics;
+        this.numVertices = graph.getNumVertices();
+
+        int k = seed.getNumComponents();
+        componentOf = new int[numVertices];
+        members = new int[numVertices][];
+        memberCount = new int[numVertices];
+        successors = new Neighbours(numVertices);
+        predecessors = new Neighbours(numVertices);
+        order = new long[numVertices];
+        freeIds = new int[numVertices];
+        outEdges = new int[numVertices][];
+        outCount = new int[numVertices];
+        inEdges = new int[numVertices][];
+        inCount = new int[numVertices];
+        forwardMark = new int[numVertices];
+        backwardMark = new int[numVertices];
+        gatherMark = new int[numVertices];
+        gatherSlot = new int[numVertices];
+        discoveryTime = new int[numVertices];
+        lowLink = new int[numVertices];
+        nextEdge = new int[numVertices];
+        numComponents = k;
+
+        for (int c = numVertices - 1; c >= k; c--) {
+            freeIds[freeCount++] = c;
+        }
+
+        for (int v = 0; v < numVertices; v++) {
+            int c = seed.getComponentId(v);
+            componentOf[v] = c;
+            memberCount[c]++;
+        }
+        for (int c = 0; c < numVertices; c++) {
+            members[c] = c < k ? new int[memberCount[c]] : null;
+            if (c < k) {
+                successors.reset(c);
+                predecessors.reset(c);
+            }
+        }
+        int[] filled = new int[k];
+        for (int v = 0; v < numVertices; v++) {
+            int c = componentOf[v];
+            members[c][filled[c]++] = v;
+        }
+
+        int[] inDegrees = graph.getInDegrees();
+        for (int v = 0; v < numVertices; v++) {
+            outEdges[v] = new int[graph.getOutDegree(v)];
+            inEdges[v] = new int[inDegrees[v]];
+        }
+        EdgeCursor cursor = graph.edgeCursor();
+        for (int u = 0; u < numVertices; u++) {
+            cursor.reset(u);
+            while (cursor.next()) {
+                int v = cursor.target();
+                outEdges[u][outCount[u]++] = v;
+                inEdges[v][inCount[v]++] = u;
+            }
+        }
+        for (int c = 0; c < k; c++) {
+            gatherSuccessors(c);
+        }
+
+        seedOrder(k);
+    }
+
+    /**
+     * Records the edge {@code from -> to}. Returns the ids of the components
+     * merged because the edge closed a cycle, or an empty array when the SCCs
+     * are unchanged. After a merge all returned ids except
+     * {@code getComponentId(from)} are retired.
+     */
+    public int[] addEdge(int from, int to) {
+        validateVertex(from);
+        validateVertex(to);
+        metrics.incrementCounter("dynamic_scc_insertions");
+        append(outEdges, outCount, from, to);
+        append(inEdges, inCount, to, from);
+
+        int source = componentOf[from];
+        int target = componentOf[to];
+        if (source == target) {
+            return NO_CHANGE;
+        }
+        boolean known = successors.indexOf(source, target) >= 0;
+        addCondensationEdge(source, target, 1);
+        if (known || order[source] < order[target]) {
+            return NO_CHANGE;
+        }
+
+        long upper = order[source];
+        long lower = order[target];
+        stamp++;
+        int[] forward = search(target, upper, lower, forwardMark, successors);
+        int[] backward = search(source, upper, lower, backwardMark, predecessors);
+        metrics.incrementCounter("dynamic_scc_components_visited", forward.length + backward.length);
+
+        // Components reachable from the head that also reach the tail lie on
+        // the new cycle; all of them sit between the two positions.
+        int[] cycle = new int[backward.length];
+        int[] backwardOnly = new int[backward.length];
+        int[] forwardOnly = new int[forward.length];
+        int cycleSize = 0;
+        int backwardSize = 0;
+        int forwardSize = 0;
+        for (int c : backward) {
+            if (forwardMark[c] == stamp) {
+                cycle[cycleSize++] = c;
+            } else {
+                backwardOnly[backwardSize++] = c;
+            }
+        }
+        for (int c : forward) {
+            if (backwardMark[c] != stamp) {
+                forwardOnly[forwardSize++] = c;
+            }
+        }
+
+        int[] merged = NO_CHANGE;
+        int survivor = -1;
+        if (cycleSize > 0) {
+            merged = Arrays.copyOf(cycle, cycleSize);
+            survivor = merge(merged);
+            metrics.incrementCounter("dynamic_scc_merges", merged.length - 1);
+        }
+        reorder(Arrays.copyOf(backwardOnly, backwardSize), survivor,
+                Arrays.copyOf(forwardOnly, forwardSize), merged);
+        return merged;
+    }
+
+    /**
+     * Removes one {@code from -> to} edge. Returns the ids of the components
+     * the edge's SCC split into, in topological order, or an empty array when
+     * the SCCs are unchanged. Only the SCC that contained the edge is
+     * re-examined.
+     */
+    public int[] removeEdge(int from, int to) {
+        validateVertex(from);
+        validateVertex(to);
+        if (!remove(outEdges, outCount, from, to)) {
+            throw new IllegalArgumentException(String.format("Edge %d -> %d does not exist", from, to));
+        }
+        remove(inEdges, inCount, to, from);
+        metrics.incrementCounter("dynamic_scc_removals");
+
+        int source = componentOf[from];
+        int target = componentOf[to];
+        if (source != target) {
+            removeCondensationEdge(source, target);
+            return NO_CHANGE;
+        }
+        return split(source);
+    }
+
+    public int getComponentId(int vertex) {
+        validateVertex(vertex);
+        return componentOf[vertex];
+    }
+
+    public boolean inSameComponent(int u, int v) {
+        return getComponentId(u) == getComponentId(v);
+    }
+
+    public int getNumComponents() {
+        return numComponents;
+    }
+
+    public int[] getMembers(int componentId) {
+        if (componentId < 0 || componentId >= numVertices || members[componentId] == null) {
+            throw new IllegalArgumentException("Invalid component ID: " + componentId);
+        }
+        return Arrays.copyOf(members[componentId], memberCount[componentId]);
+    }
+
+    /**
+     * Snapshot of the current partition with ids renumbered densely in the
+     * maintained topological order.
+     */
+    public SCCResult toSCCResult() {
+        int[] componentId = new int[numVertices];
+        int id = 0;
+        for (int c : byPosition.values()) {
+            for (int i = 0; i < memberCount[c]; i++) {
+                componentId[members[c][i]] = id;
+            }
+            id++;
+        }
+        return new SCCResult(componentId, numComponents);
+    }
+
+    private void seedOrder(int k) {
+        int[] inDegree = new int[k];
+        for (int c = 0; c < k; c++) {
+            for (int i = 0; i < successors.size[c]; i++) {
+                inDegree[successors.ids[c][i]]++;
+            }
+        }
+        int[] queue = new int[k];
+        int head = 0;
+        int tail = 0;
+        for (int c = 0; c < k; c++) {
+            if (inDegree[c] == 0) {
+                queue[tail++] = c;
+            }
+        }
+        while (head < tail) {
+            int c = queue[head];
+            order[c] = head++ * GAP;
+            byPosition.put(order[c], c);
+            for (int i = 0; i < successors.size[c]; i++) {
+                int t = successors.ids[c][i];
+                if (--inDegree[t] == 0) {
+                    queue[tail++] = t;
+                }
+            }
+        }
+        if (tail != k) {
+            throw new IllegalArgumentException("Seed SCCResult does not match the graph: condensation has a cycle");
+        }
+    }
+
+    /**
+     * Breadth-first search over the condensation restricted to positions in
+     * [lower, upper], marking visited components with the current stamp.
+     * Returns the visited components; the array doubles as the queue.
+     */
+    private int[] search(int start, long upper, long lower, int[] mark, Neighbours adjacency) {
+        int[] visited = new int[16];
+        int head = 0;
+        int tail = 0;
+        mark[start] = stamp;
+        visited[tail++] = start;
+
+        while (head < tail) {
+            int c = visited[head++];
+            int[] ids = adjacency.ids[c];
+            for (int i = 0; i < adjacency.size[c]; i++) {
+                int t = ids[i];
+                if (mark[t] != stamp && order[t] >= lower && order[t] <= upper) {
+                    mark[t] = stamp;
+                    if (tail == visited.length) {
+                        visited = Arrays.copyOf(visited, tail * 2);
+                    }
+                    visited[tail++] = t;
+                }
+            }
+        }
+        return Arrays.copyOf(visited, tail);
+    }
+
+    /**
+     * Reassigns the positions held by the visited components: backward-only
+     * components take the lowest, forward-only ones the highest and the merged
+     * component the slot just below them. Each group keeps its relative order;
+     * slots left over by a merge stay unused.
+     */
+    private void reorder(int[] backwardOnly, int survivor, int[] forwardOnly, int[] merged) {
+        sortByPosition(backwardOnly);
+        sortByPosition(forwardOnly);
+        int slots = backwardOnly.length + forwardOnly.length + merged.length;
+        long[] positions = new long[slots];
+        int size = 0;
+        for (int c : backwardOnly) {
+            positions[size++] = order[c];
+        }
+        for (int c : forwardOnly) {
+            positions[size++] = order[c];
+        }
+        for (int c : merged) {
+            positions[size++] = order[c];
+        }
+        Arrays.sort(positions);
+        for (long position : positions) {
+            byPosition.remove(position);
+        }
+
+        int next = 0;
+        for (int c : backwardOnly) {
+            order[c] = positions[next++];
+        }
+        // Forward components must keep the highest slots: an unvisited
+        // predecessor may sit anywhere below their old positions.
+        next = slots - forwardOnly.length;
+        if (survivor >= 0) {
+            order[survivor] = positions[next - 1];
+        }
+        for (int c : forwardOnly) {
+            order[c] = positions[next++];
+        }
+
+        for (int c : backwardOnly) {
+            byPosition.put(order[c], c);
+        }
+        for (int c : forwardOnly) {
+            byPosition.put(order[c], c);
+        }
+        if (survivor >= 0) {
+            byPosition.put(order[survivor], survivor);
+        }
+    }
+
+    /**
+     * Sorts components by their current positions, which must still be in
+     * {@code byPosition}.
+     */
+    private void sortByPosition(int[] components) {
+        long[] positions = new long[components.length];
+        for (int i = 0; i < components.length; i++) {
+            positions[i] = order[components[i]];
+        }
+        Arrays.sort(positions);
+        for (int i = 0; i < components.length; i++) {
+            components[i] = byPosition.get(positions[i]);
+        }
+    }
+
+    private int merge(int[] cycle) {
+        int survivor = cycle[0];
+        for (int c : cycle) {
+            if (memberCount[c] > memberCount[survivor]) {
+                survivor = c;
+            }
+        }
+        for (int c : cycle) {
+            if (c == survivor) {
+                continue;
+            }
+            int count = memberCount[c];
+            int[] target = members[survivor];
+            if (memberCount[survivor] + count > target.length) {
+                target = Arrays.copyOf(target, Math.max(memberCount[survivor] + count, target.length * 2));
+                members[survivor] = target;
+            }
+            for (int i = 0; i < count; i++) {
+                int v = members[c][i];
+                componentOf[v] = survivor;
+                target[memberCount[survivor]++] = v;
+            }
+
+            for (int i = 0; i < successors.size[c]; i++) {
+                int t = successors.ids[c][i];
+                predecessors.remove(t, c);
+                if (!onCycle(t)) {
+                    addCondensationEdge(survivor, t, successors.multiplicity[c][i]);
+                }
+            }
+            for (int i = 0; i < predecessors.size[c]; i++) {
+                int s = predecessors.ids[c][i];
+                successors.remove(s, c);
+                if (!onCycle(s)) {
+                    addCondensationEdge(s, survivor, predecessors.multiplicity[c][i]);
+                }
+            }
+
+            members[c] = null;
+            memberCount[c] = 0;
+            successors.retire(c);
+            predecessors.retire(c);
+            freeIds[freeCount++] = c;
+            numComponents--;
+        }
+        for (int c : cycle) {
+            successors.remove(survivor, c);
+            predecessors.remove(survivor, c);
+        }
+        return survivor;
+    }
+
+    private int[] split(int component) {
+        int size = memberCount[component];
+        int[] vertices = Arrays.copyOf(members[component], size);
+        metrics.incrementCounter("dynamic_scc_vertices_rescanned", size);
+
+        // discoveryTime holds each vertex's piece (in Tarjan's emission order,
+        // i.e. reverse topological) once the search finishes.
+        int pieces = restrictedTarjan(vertices, component);
+        if (pieces == 1) {
+            return NO_CHANGE;
+        }
+
+        int[] counts = new int[pieces];
+        for (int v : vertices) {
+            counts[discoveryTime[v]]++;
+        }
+        int largest = 0;
+        for (int p = 1; p < pieces; p++) {
+            if (counts[p] > counts[largest]) {
+                largest = p;
+            }
+        }
+
+        for (int i = 0; i < successors.size[component]; i++) {
+            predecessors.remove(successors.ids[component][i], component);
+        }
+        for (int i = 0; i < predecessors.size[component]; i++) {
+            successors.remove(predecessors.ids[component][i], component);
+        }
+        byPosition.remove(order[component]);
+
+        stamp++;
+        int[] ids = new int[pieces];
+        for (int p = 0; p < pieces; p++) {
+            int id = p == largest ? component : freeIds[--freeCount];
+            ids[p] = id;
+            members[id] = new int[counts[p]];
+            memberCount[id] = 0;
+            successors.reset(id);
+            predecessors.reset(id);
+            forwardMark[id] = stamp;
+        }
+        for (int v : vertices) {
+            int id = ids[discoveryTime[v]];
+            componentOf[v] = id;
+            members[id][memberCount[id]++] = v;
+        }
+        // Edges entering a piece from outside, then every edge leaving a
+        // piece; each condensation edge is gathered exactly once.
+        for (int id : ids) {
+            gatherStamp++;
+            for (int j = 0; j < memberCount[id]; j++) {
+                int v = members[id][j];
+                for (int i = 0; i < inCount[v]; i++) {
+                    int c = componentOf[inEdges[v][i]];
+                    if (forwardMark[c] != stamp) {
+                        gather(predecessors, id, c);
+                    }
+                }
+            }
+            for (int i = 0; i < predecessors.size[id]; i++) {
+                successors.append(predecessors.ids[id][i], id, predecessors.multiplicity[id][i]);
+            }
+        }
+        for (int id : ids) {
+            gatherSuccessors(id);
+        }
+
+        long low = order[component];
+        Long next = byPosition.higherKey(low);
+        if (next != null && next - low < pieces) {
+            byPosition.put(low, component);
+            relabel(component, pieces * GAP);
+            byPosition.remove(order[component]);
+            low = order[component];
+            next = byPosition.higherKey(low);
+        }
+        long step = next == null ? GAP : (next - low) / pieces;
+
+        int[] topological = new int[pieces];
+        for (int i = 0; i < pieces; i++) {
+            int id = ids[pieces - 1 - i];
+            topological[i] = id;
+            order[id] = low + i * step;
+            byPosition.put(order[id], id);
+        }
+
+        numComponents += pieces - 1;
+        metrics.incrementCounter("dynamic_scc_splits");
+        return topological;
+    }
+
+    /**
+     * Tarjan over the vertices of one component, ignoring edges that leave
+     * it. Stores each vertex's piece index in {@code discoveryTime} and
+     * returns the number of pieces.
+     */
+    private int restrictedTarjan(int[] vertices, int component) {
+        for (int v : vertices) {
+            discoveryTime[v] = -1;
+            nextEdge[v] = 0;
+        }
+        int[] callStack = new int[vertices.length];
+        int[] sccStack = new int[vertices.length];
+        int[] pieceAt = new int[vertices.length];
+        Arrays.fill(pieceAt, -1);
+        int sccTop = 0;
+        int time = 0;
+        int pieces = 0;
+
+        for (int root : vertices) {
+            if (discoveryTime[root] != -1) {
+                continue;
+            }
+            int frameTop = 0;
+            discoveryTime[root] = lowLink[root] = time++;
+            sccStack[sccTop++] = root;
+            callStack[frameTop++] = root;
+
+            while (frameTop > 0) {
+                int u = callStack[frameTop - 1];
+                int i = nextEdge[u];
+
+                if (i < outCount[u]) {
+                    nextEdge[u] = i + 1;
+                    int v = outEdges[u][i];
+                    if (componentOf[v] != component) {
+                        continue;
+                    }
+                    if (discoveryTime[v] == -1) {
+                        discoveryTime[v] = lowLink[v] = time++;
+                        sccStack[sccTop++] = v;
+                        callStack[frameTop++] = v;
+                    } else if (pieceAt[discoveryTime[v]] == -1) {
+                        lowLink[u] = Math.min(lowLink[u], discoveryTime[v]);
+                    }
+                    continue;
+                }
+
+                frameTop--;
+                if (lowLink[u] == discoveryTime[u]) {
+                    int v;
+                    do {
+                        v = sccStack[--sccTop];
+                        pieceAt[discoveryTime[v]] = pieces;
+                    } while (v != u);
+                    pieces++;
+                }
+                if (frameTop > 0) {
+                    int parent = callStack[frameTop - 1];
+                    lowLink[parent] = Math.min(lowLink[parent], lowLink[u]);
+                }
+            }
+        }
+        for (int v : vertices) {
+            discoveryTime[v] = pieceAt[discoveryTime[v]];
+        }
+        return pieces;
+    }
+
+    /**
+     * Respaces all positions GAP apart, leaving {@code room} after
+     * {@code widened} so a split into more than GAP pieces still fits.
+     */
+    private void relabel(int widened, long room) {
+        long position = 0;
+        TreeMap<Long, Integer> relabelled = new TreeMap<>();
+        for (int c : byPosition.values()) {
+            order[c] = position;
+            relabelled.put(position, c);
+            position += c == widened ? Math.max(GAP, room) : GAP;
+        }
+        byPosition.clear();
+        byPosition.putAll(relabelled);
+        metrics.incrementCounter("dynamic_scc_relabels");
+    }
+
+    private static void append(int[][] adjacency, int[] count, int vertex, int value) {
+        int size = count[vertex];
+        if (size == adjacency[vertex].length) {
+            adjacency[vertex] = Arrays.copyOf(adjacency[vertex], Math.max(4, size * 2));
+        }
+        adjacency[vertex][size] = value;
+        count[vertex] = size + 1;
+    }
+
+    private static boolean remove(int[][] adjacency, int[] count, int vertex, int value) {
+        int[] list = adjacency[vertex];
+        int size = count[vertex];
+        for (int i = 0; i < size; i++) {
+            if (list[i] == value) {
+                list[i] = list[size - 1];
+                count[vertex] = size - 1;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean onCycle(int c) {
+        return forwardMark[c] == stamp && backwardMark[c] == stamp;
+    }
+
+    private void addCondensationEdge(int source, int target, int multiplicity) {
+        if (source == target) {
+            return;
+        }
+        successors.add(source, target, multiplicity);
+        predecessors.add(target, source, multiplicity);
+    }
+
+    private void removeCondensationEdge(int source, int target) {
+        successors.decrement(source, target);
+        predecessors.decrement(target, source);
+    }
+
+    /**
+     * Builds the successor list of {@code component}, which must be empty,
+     * from its members' out-edges in one pass and mirrors each entry into the
+     * predecessor lists. Targets must not list {@code component} yet.
+     */
+    private void gatherSuccessors(int component) {
+        gatherStamp++;
+        for (int j = 0; j < memberCount[component]; j++) {
+            int u = members[component][j];
+            for (int i = 0; i < outCount[u]; i++) {
+                int t = componentOf[outEdges[u][i]];
+                if (t != component) {
+                    gather(successors, component, t);
+                }
+            }
+        }
+        for (int i = 0; i < successors.size[component]; i++) {
+            predecessors.append(successors.ids[component][i], component, successors.multiplicity[component][i]);
+        }
+    }
+
+    /**
+     * Counts one edge between {@code component} and {@code neighbour} without
+     * scanning the list: the slot of every neighbour gathered since
+     * {@code gatherStamp} was bumped is remembered in {@code gatherSlot}.
+     */
+    private void gather(Neighbours adjacency, int component, int neighbour) {
+        if (gatherMark[neighbour] == gatherStamp) {
+            adjacency.multiplicity[component][gatherSlot[neighbour]]++;
+        } else {
+            gatherMark[neighbour] = gatherStamp;
+            gatherSlot[neighbour] = adjacency.append(component, neighbour, 1);
+        }
+    }
+
+    private void validateVertex(int vertex) {
+        if (vertex < 0 || vertex >= numVertices) {
+            throw new IllegalArgumentException(
+                    String.format("Vertex %d is out of range [0, %d)", vertex, numVertices));
+        }
+    }
+
+    /**
+     * One direction of the condensation: for each component, its distinct
+     * neighbours and the number of graph edges behind each, in parallel
+     * unsorted arrays. Lookups scan the component's list.
+     */
+    private static final class Neighbours {
+        private static final int[] EMPTY = new int[0];
+
+        final int[][] ids;
+        final int[][] multiplicity;
+        final int[] size;
+
+        Neighbours(int capacity) {
+            ids = new int[capacity][];
+            multiplicity = new int[capacity][];
+            size = new int[capacity];
+        }
+
+        void reset(int component) {
+            ids[component] = EMPTY;
+            multiplicity[component] = EMPTY;
+            size[component] = 0;
+        }
+
+        void retire(int component) {
+            ids[component] = null;
+            multiplicity[component] = null;
+            size[component] = 0;
+        }
+
+        int indexOf(int component, int neighbour) {
+            int[] list = ids[component];
+            for (int i = 0; i < size[component]; i++) {
+                if (list[i] == neighbour) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        void add(int component, int neighbour, int count) {
+            int i = indexOf(component, neighbour);
+            if (i >= 0) {
+                multiplicity[component][i] += count;
+            } else {
+                append(component, neighbour, count);
+            }
+        }
+
+        /** Appends a neighbour not yet in the list and returns its slot. */
+        int append(int component, int neighbour, int count) {
+            int i = size[component];
+            if (i == ids[component].length) {
+                int capacity = Math.max(4, i * 2);
+                ids[component] = Arrays.copyOf(ids[component], capacity);
+                multiplicity[component] = Arrays.copyOf(multiplicity[component], capacity);
+            }
+            ids[component][i] = neighbour;
+            multiplicity[component][i] = count;
+            size[component] = i + 1;
+            return i;
+        }
+
+        void decrement(int component, int neighbour) {
+            int i = indexOf(component, neighbour);
+            if (--multiplicity[component][i] == 0) {
+                removeAt(component, i);
+            }
+        }
+
+        void remove(int component, int neighbour) {
+            int i = indexOf(component, neighbour);
+            if (i >= 0) {
+                removeAt(component, i);
+            }
+        }
+
+        private void removeAt(int component, int i) {
+            int last = --size[component];
+            ids[component][i] = ids[component][last];
+            multiplicity[component][i] = multiplicity[component][last];
+        }
+    }
+}
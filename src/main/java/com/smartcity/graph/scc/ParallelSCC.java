@@ -0,0 +1,554 @@
+package com.smartcity.graph.scc;
+
+import com.smartcity.common.AdjacencyGraph;
+import com.smartcity.common.CSRGraph;
+import com.smartcity.common.Metrics;
+import java.util.Arrays;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Forward-backward SCC decomposition on a {@link ForkJoinPool}. Each
+ * subproblem first trims vertices without in- or out-edges inside it, then
+ * picks a random pivot, computes its forward and backward reachable sets
+ * (level-synchronous and parallel when the frontier is wide), emits their
+ * intersection as one SCC and forks the forward-only and backward-only parts.
+ * Subproblems below {@link #SUBPROBLEM_CUTOFF} vertices are finished with a
+ * restricted sequential Tarjan, and graphs below the sequential threshold skip
+ * all of this and run {@link TarjanSCC} directly. Tasks never join their
+ * children, so deep decompositions do not grow the thread stack.
+ *
+ * The partition is identical to TarjanSCC's. Component ids are numbered in a
+ * topological order of the condensation, as TarjanSCC's are, though not
+ * necessarily the same order.
+ */
+public class ParallelSCC implements SCCAlgorithm {
+
+    public static final int DEFAULT_SEQUENTIAL_THRESHOLD = 50_000;
+    static final int SUBPROBLEM_CUTOFF = 4096;
+    private static final int UNPRODUCTIVE_FRACTION = 8;
+    private static final int DONE = -1;
+    private static final int PARALLEL_FRONTIER = 2048;
+    private static final int FRONTIER_CHUNK = 1024;
+
+    private final AdjacencyGraph graph;
+    private final Metrics metrics;
+    private final ForkJoinPool pool;
+    private int sequentialThreshold = DEFAULT_SEQUENTIAL_THRESHOLD;
+
+    private CSRGraph forward;
+    private CSRGraph backward;
+    private int[] color;
+    private int[] rawComponent;
+    private AtomicIntegerArray forwardMark;
+    private AtomicIntegerArray backwardMark;
+    private int[] discoveryTime;
+    private int[] lowLink;
+    private int[] nextEdge;
+    private int[] inDegree;
+    private int[] outDegree;
+    private AtomicInteger colorCounter;
+    private AtomicInteger componentCounter;
+    private AtomicInteger pivots;
+    private AtomicInteger sequentialSubproblems;
+    private AtomicInteger trimmed;
+
+    /**
+     * Unbound instance for use through {@link SCCAlgorithm}; its
+     * {@link #findSCC()} throws. Callers outside the package use
+     * {@link #algorithm(ForkJoinPool, int)}.
+     */
+    ParallelSCC() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    ParallelSCC(ForkJoinPool pool) {
+        this.graph = null;
+        this.metrics = null;
+        this.pool = pool;
+    }
+
+    public ParallelSCC(AdjacencyGraph graph, Metrics metrics) {
+        this(graph, metrics, ForkJoinPool.commonPool());
+    }
+
+    public ParallelSCC(AdjacencyGraph graph, Metrics metrics, ForkJoinPool pool) {
+        if (!graph.isDirected()) {
+            throw new IllegalArgumentException("SCC algorithm requires a directed graph");
+        }
+        this.graph = graph;
+        this.metrics = metrics;
+        this.pool = pool;
+    }
+
+    /**
+     * The parallel engine as an {@link SCCAlgorithm} running on {@code pool},
+     * falling back to Tarjan below {@code sequentialThreshold} vertices.
+     */
+    public static SCCAlgorithm algorithm(ForkJoinPool pool, int sequentialThreshold) {
+        return new ParallelSCC(pool).setSequentialThreshold(sequentialThreshold);
+    }
+
+    /**
+     * Graphs with fewer vertices than this run sequential Tarjan instead.
+     * Use 0 to always run the parallel engine.
+     */
+    public ParallelSCC setSequentialThreshold(int sequentialThreshold) {
+        this.sequentialThreshold = sequentialThreshold;
+        return this;
+    }
+
+    @Override
+    public SCCResult findSCC(AdjacencyGraph graph, Metrics metrics) {
+        return new ParallelSCC(graph, metrics, pool).setSequentialThreshold(sequentialThreshold).findSCC();
+    }
+
+    public SCCResult findSCC() {
+        if (graph == null) {
+            throw new IllegalStateException("No graph bound; use findSCC(graph, metrics)");
+        }
+        int n = graph.getNumVertices();
+        if (n < sequentialThreshold) {
+            metrics.incrementCounter("parallel_scc_fallbacks");
+            return new TarjanSCC(graph, metrics).findSCC();
+        }
+
+        metrics.startTiming("parallel_scc_total");
+
+        forward = CSRGraph.fromGraph(graph);
+        backward = forward.transpose();
+        color = new int[n];
+        rawComponent = new int[n];
+        forwardMark = new AtomicIntegerArray(n);
+        backwardMark = new AtomicIntegerArray(n);
+        discoveryTime = new int[n];
+        lowLink = new int[n];
+        nextEdge = new int[n];
+        inDegree = new int[n];
+        outDegree = new int[n];
+        colorCounter = new AtomicInteger(1);
+        componentCounter = new AtomicInteger();
+        pivots = new AtomicInteger();
+        sequentialSubproblems = new AtomicInteger();
+        trimmed = new AtomicInteger();
+
+        int[] all = new int[n];
+        for (int v = 0; v < n; v++) {
+            all[v] = v;
+        }
+
+        pool.invoke(new Subproblem(null, all, 0, false));
+
+        SCCResult result = numberTopologically(componentCounter.get());
+
+        metrics.incrementCounter("fwbw_pivots", pivots.get());
+        metrics.incrementCounter("sequential_subproblems", sequentialSubproblems.get());
+        metrics.incrementCounter("trimmed_vertices", trimmed.get());
+        metrics.incrementCounter("scc_found", result.getNumComponents());
+        metrics.stopTiming("parallel_scc_total");
+
+        return result;
+    }
+
+    private final class Subproblem extends CountedCompleter<Void> {
+        private static final long serialVersionUID = 1L;
+
+        private int[] vertices;
+        private int subColor;
+        private final boolean sequentialOnly;
+
+        Subproblem(CountedCompleter<?> parent, int[] vertices, int subColor, boolean sequentialOnly) {
+            super(parent);
+            this.vertices = vertices;
+            this.subColor = subColor;
+            this.sequentialOnly = sequentialOnly;
+        }
+
+        @Override
+        public void compute() {
+            while (true) {
+                if (sequentialOnly || vertices.length <= SUBPROBLEM_CUTOFF) {
+                    sequentialSubproblems.incrementAndGet();
+                    restrictedTarjan(vertices, subColor);
+                    break;
+                }
+
+                vertices = trim(vertices, subColor);
+                if (vertices.length <= SUBPROBLEM_CUTOFF) {
+                    continue;
+                }
+
+                pivots.incrementAndGet();
+                int size = vertices.length;
+                int pivot = vertices[ThreadLocalRandom.current().nextInt(size)];
+                int stamp = subColor + 1;
+                reach(pivot, subColor, forward, forwardMark, stamp);
+                reach(pivot, subColor, backward, backwardMark, stamp);
+
+                int component = componentCounter.getAndIncrement();
+                int forwardOnly = 0;
+                int backwardOnly = 0;
+                int neither = 0;
+                for (int v : vertices) {
+                    boolean f = forwardMark.get(v) == stamp;
+                    boolean b = backwardMark.get(v) == stamp;
+                    if (f && b) {
+                        rawComponent[v] = component;
+                    } else if (f) {
+                        forwardOnly++;
+                    } else if (b) {
+                        backwardOnly++;
+                    } else {
+                        neither++;
+                    }
+                }
+
+                int[] forwardSet = new int[forwardOnly];
+                int[] backwardSet = new int[backwardOnly];
+                int[] restSet = new int[neither];
+                int forwardColor = colorCounter.getAndAdd(3);
+                int backwardColor = forwardColor + 1;
+                int restColor = forwardColor + 2;
+                forwardOnly = backwardOnly = neither = 0;
+
+                for (int v : vertices) {
+                    boolean f = forwardMark.get(v) == stamp;
+                    boolean b = backwardMark.get(v) == stamp;
+                    if (f && b) {
+                        color[v] = DONE;
+                    } else if (f) {
+                        color[v] = forwardColor;
+                        forwardSet[forwardOnly++] = v;
+                    } else if (b) {
+                        color[v] = backwardColor;
+                        backwardSet[backwardOnly++] = v;
+                    } else {
+                        color[v] = restColor;
+                        restSet[neither++] = v;
+                    }
+                }
+
+                spawn(forwardSet, forwardColor, false);
+                spawn(backwardSet, backwardColor, false);
+
+                vertices = restSet;
+                subColor = restColor;
+                if (size - restSet.length < size / UNPRODUCTIVE_FRACTION) {
+                    splitWeakly(restSet, restColor);
+                    break;
+                }
+            }
+            tryComplete();
+        }
+
+        private void spawn(int[] set, int setColor, boolean sequential) {
+            if (set.length > 0) {
+                addToPendingCount(1);
+                new Subproblem(this, set, setColor, sequential).fork();
+            }
+        }
+
+        /**
+         * Groups the weakly connected pieces of a subproblem into batches of at
+         * least {@link #SUBPROBLEM_CUTOFF} vertices and finishes each batch with
+         * sequential Tarjan. Used when pivots stop removing a meaningful share of
+         * the subproblem, e.g. many disjoint small cycles.
+         */
+        private void splitWeakly(int[] set, int setColor) {
+            int[] batch = new int[Math.min(set.length, 2 * SUBPROBLEM_CUTOFF)];
+            int batchSize = 0;
+            int batchColor = colorCounter.getAndIncrement();
+
+            for (int start : set) {
+                if (color[start] != setColor) {
+                    continue;
+                }
+                color[start] = batchColor;
+                int head = batchSize;
+                batch = append(batch, batchSize++, start);
+
+                while (head < batchSize) {
+                    int u = batch[head++];
+                    for (CSRGraph adjacency : new CSRGraph[] { forward, backward }) {
+                        for (int e = adjacency.getEdgeStart(u); e < adjacency.getEdgeEnd(u); e++) {
+                            int v = adjacency.getTarget(e);
+                            if (color[v] == setColor) {
+                                color[v] = batchColor;
+                                batch = append(batch, batchSize++, v);
+                            }
+                        }
+                    }
+                }
+
+                if (batchSize >= SUBPROBLEM_CUTOFF) {
+                    spawn(Arrays.copyOf(batch, batchSize), batchColor, true);
+                    batchSize = 0;
+                    batchColor = colorCounter.getAndIncrement();
+                }
+            }
+            spawn(Arrays.copyOf(batch, batchSize), batchColor, true);
+        }
+    }
+
+    private static int[] append(int[] array, int index, int value) {
+        if (index == array.length) {
+            array = Arrays.copyOf(array, Math.max(16, array.length * 2));
+        }
+        array[index] = value;
+        return array;
+    }
+
+    /**
+     * Repeatedly removes vertices with no in- or out-edges inside the
+     * subproblem; each is a singleton SCC. Returns the surviving vertices.
+     */
+    private int[] trim(int[] vertices, int subColor) {
+        for (int u : vertices) {
+            inDegree[u] = 0;
+            outDegree[u] = 0;
+        }
+        for (int u : vertices) {
+            for (int e = forward.getEdgeStart(u); e < forward.getEdgeEnd(u); e++) {
+                int v = forward.getTarget(e);
+                if (color[v] == subColor) {
+                    outDegree[u]++;
+                    inDegree[v]++;
+                }
+            }
+        }
+
+        int[] queue = new int[16];
+        int tail = 0;
+        for (int u : vertices) {
+            if (inDegree[u] == 0 || outDegree[u] == 0) {
+                color[u] = DONE;
+                queue = append(queue, tail++, u);
+            }
+        }
+
+        for (int head = 0; head < tail; head++) {
+            int u = queue[head];
+            rawComponent[u] = componentCounter.getAndIncrement();
+
+            for (int e = forward.getEdgeStart(u); e < forward.getEdgeEnd(u); e++) {
+                int v = forward.getTarget(e);
+                if (color[v] == subColor && --inDegree[v] == 0) {
+                    color[v] = DONE;
+                    queue = append(queue, tail++, v);
+                }
+            }
+            for (int e = backward.getEdgeStart(u); e < backward.getEdgeEnd(u); e++) {
+                int w = backward.getTarget(e);
+                if (color[w] == subColor && --outDegree[w] == 0) {
+                    color[w] = DONE;
+                    queue = append(queue, tail++, w);
+                }
+            }
+        }
+        trimmed.addAndGet(tail);
+
+        if (tail == 0) {
+            return vertices;
+        }
+        int[] remaining = new int[vertices.length - tail];
+        int size = 0;
+        for (int u : vertices) {
+            if (color[u] == subColor) {
+                remaining[size++] = u;
+            }
+        }
+        return remaining;
+    }
+
+    private void reach(int pivot, int subColor, CSRGraph adjacency, AtomicIntegerArray mark, int stamp) {
+        mark.set(pivot, stamp);
+        int[] frontier = { pivot };
+
+        while (frontier.length > 0) {
+            if (frontier.length >= PARALLEL_FRONTIER) {
+                frontier = new Expand(frontier, 0, frontier.length, subColor, adjacency, mark, stamp).invoke();
+            } else {
+                frontier = expand(frontier, 0, frontier.length, subColor, adjacency, mark, stamp);
+            }
+        }
+    }
+
+    private int[] expand(int[] frontier, int from, int to, int subColor, CSRGraph adjacency,
+            AtomicIntegerArray mark, int stamp) {
+        int[] next = new int[Math.max(16, to - from)];
+        int size = 0;
+        for (int i = from; i < to; i++) {
+            int u = frontier[i];
+            for (int e = adjacency.getEdgeStart(u); e < adjacency.getEdgeEnd(u); e++) {
+                int v = adjacency.getTarget(e);
+                if (color[v] == subColor && mark.get(v) != stamp && mark.getAndSet(v, stamp) != stamp) {
+                    if (size == next.length) {
+                        next = Arrays.copyOf(next, size * 2);
+                    }
+                    next[size++] = v;
+                }
+            }
+        }
+        return Arrays.copyOf(next, size);
+    }
+
+    private final class Expand extends RecursiveTask<int[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] frontier;
+        private final int from;
+        private final int to;
+        private final int subColor;
+        private final CSRGraph adjacency;
+        private final AtomicIntegerArray mark;
+        private final int stamp;
+
+        Expand(int[] frontier, int from, int to, int subColor, CSRGraph adjacency,
+                AtomicIntegerArray mark, int stamp) {
+            this.frontier = frontier;
+            this.from = from;
+            this.to = to;
+            this.subColor = subColor;
+            this.adjacency = adjacency;
+            this.mark = mark;
+            this.stamp = stamp;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (to - from <= FRONTIER_CHUNK) {
+                return expand(frontier, from, to, subColor, adjacency, mark, stamp);
+            }
+            int mid = (from + to) >>> 1;
+            Expand left = new Expand(frontier, from, mid, subColor, adjacency, mark, stamp);
+            Expand right = new Expand(frontier, mid, to, subColor, adjacency, mark, stamp);
+            left.fork();
+            int[] rightResult = right.compute();
+            int[] leftResult = left.join();
+            int[] merged = Arrays.copyOf(leftResult, leftResult.length + rightResult.length);
+            System.arraycopy(rightResult, 0, merged, leftResult.length, rightResult.length);
+            return merged;
+        }
+    }
+
+    private void restrictedTarjan(int[] vertices, int subColor) {
+        int s = vertices.length;
+        for (int v : vertices) {
+            discoveryTime[v] = -1;
+            nextEdge[v] = forward.getEdgeStart(v);
+        }
+
+        int[] callStack = new int[s];
+        int[] sccStack = new int[s];
+        int sccTop = 0;
+        int time = 0;
+
+        for (int root : vertices) {
+            if (discoveryTime[root] != -1) {
+                continue;
+            }
+            int frameTop = 0;
+            discoveryTime[root] = lowLink[root] = time++;
+            sccStack[sccTop++] = root;
+            callStack[frameTop++] = root;
+
+            while (frameTop > 0) {
+                int u = callStack[frameTop - 1];
+                int e = nextEdge[u];
+
+                if (e < forward.getEdgeEnd(u)) {
+                    nextEdge[u] = e + 1;
+                    int v = forward.getTarget(e);
+                    if (color[v] != subColor) {
+                        continue;
+                    }
+                    if (discoveryTime[v] == -1) {
+                        discoveryTime[v] = lowLink[v] = time++;
+                        sccStack[sccTop++] = v;
+                        callStack[frameTop++] = v;
+                    } else if (discoveryTime[v] >= 0) {
+                        lowLink[u] = Math.min(lowLink[u], discoveryTime[v]);
+                    }
+                    continue;
+                }
+
+                frameTop--;
+                if (lowLink[u] == discoveryTime[u]) {
+                    int component = componentCounter.getAndIncrement();
+                    int v;
+                    do {
+                        v = sccStack[--sccTop];
+                        discoveryTime[v] = -2;
+                        rawComponent[v] = component;
+                    } while (v != u);
+                }
+                if (frameTop > 0) {
+                    int parent = callStack[frameTop - 1];
+                    lowLink[parent] = Math.min(lowLink[parent], lowLink[u]);
+                }
+            }
+        }
+    }
+
+    private SCCResult numberTopologically(int numComponents) {
+        int n = forward.getNumVertices();
+
+        int[] memberOffsets = new int[numComponents + 1];
+        for (int v = 0; v < n; v++) {
+            memberOffsets[rawComponent[v] + 1]++;
+        }
+        for (int c = 0; c < numComponents; c++) {
+            memberOffsets[c + 1] += memberOffsets[c];
+        }
+        int[] members = new int[n];
+        int[] next = Arrays.copyOf(memberOffsets, numComponents);
+        for (int v = 0; v < n; v++) {
+            members[next[rawComponent[v]]++] = v;
+        }
+
+        int[] inDegree = new int[numComponents];
+        for (int u = 0; u < n; u++) {
+            for (int e = forward.getEdgeStart(u); e < forward.getEdgeEnd(u); e++) {
+                int cv = rawComponent[forward.getTarget(e)];
+                if (cv != rawComponent[u]) {
+                    inDegree[cv]++;
+                }
+            }
+        }
+
+        int[] queue = new int[numComponents];
+        int head = 0;
+        int tail = 0;
+        for (int c = 0; c < numComponents; c++) {
+            if (inDegree[c] == 0) {
+                queue[tail++] = c;
+            }
+        }
+        while (head < tail) {
+            int c = queue[head++];
+            for (int i = memberOffsets[c]; i < memberOffsets[c + 1]; i++) {
+                int u = members[i];
+                for (int e = forward.getEdgeStart(u); e < forward.getEdgeEnd(u); e++) {
+                    int cv = rawComponent[forward.getTarget(e)];
+                    if (cv != c && --inDegree[cv] == 0) {
+                        queue[tail++] = cv;
+                    }
+                }
+            }
+        }
+
+        int[] componentId = new int[n];
+        for (int id = 0; id < numComponents; id++) {
+            int c = queue[id];
+            for (int i = memberOffsets[c]; i < memberOffsets[c + 1]; i++) {
+                componentId[members[i]] = id;
+            }
+        }
+
+        return new SCCResult(componentId, numComponents);
+    }
+}
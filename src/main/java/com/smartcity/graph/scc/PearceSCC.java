@@ -0,0 +1,114 @@
+package com.smartcity.graph.scc;
+
+import com.smartcity.common.AdjacencyGraph;
+import com.smartcity.common.EdgeCursor;
+import com.smartcity.common.Metrics;
+
+/**
+ * Pearce's space-efficient variant of Tarjan's algorithm. A single rindex
+ * array replaces discovery time, low-link and the on-stack flag: active
+ * vertices hold DFS indices counting up from 1, finished components take
+ * labels counting down from n - 1, and the two ranges never meet, so a plain
+ * comparison tells them apart. The DFS call stack and the component stack
+ * share one array, growing from opposite ends, and root flags are a bitset.
+ * Working memory is two int arrays, one long of saved edge-cursor position
+ * per DFS frame and n bits, against roughly 7n ints for {@link TarjanSCC}.
+ * The rindex array ends up holding the component ids.
+ *
+ * Produces the same partition as TarjanSCC with ids in the same topological
+ * order.
+ */
+public class PearceSCC implements SCCAlgorithm {
+
+    @Override
+    public SCCResult findSCC(AdjacencyGraph graph, Metrics metrics) {
+        if (!graph.isDirected()) {
+            throw new IllegalArgumentException("SCC algorithm requires a directed graph");
+        }
+
+        metrics.startTiming("pearce_scc_total");
+
+        int n = graph.getNumVertices();
+        int[] rindex = new int[n];
+        int[] stack = new int[n];
+        long[] resumeAt = new long[n];
+        EdgeCursor cursor = graph.edgeCursor();
+        long[] root = new long[(n + 63) >>> 6];
+
+        int index = 1;
+        int label = n - 1;
+        int callTop = 0;
+        int componentBottom = n;
+        int dfsVisits = 0;
+        int edgeTraversals = 0;
+
+        for (int start = 0; start < n; start++) {
+            if (rindex[start] != 0) {
+                continue;
+            }
+            rindex[start] = index++;
+            root[start >>> 6] |= 1L << start;
+            stack[callTop++] = start;
+            dfsVisits++;
+            cursor.reset(start);
+
+            while (callTop > 0) {
+                int v = stack[callTop - 1];
+
+                if (cursor.next()) {
+                    int w = cursor.target();
+                    edgeTraversals++;
+                    if (rindex[w] == 0) {
+                        resumeAt[callTop - 1] = cursor.position();
+                        rindex[w] = index++;
+                        root[w >>> 6] |= 1L << w;
+                        stack[callTop++] = w;
+                        dfsVisits++;
+                        cursor.reset(w);
+                        continue;
+                    }
+                    if (rindex[w] < rindex[v]) {
+                        rindex[v] = rindex[w];
+                        root[v >>> 6] &= ~(1L << v);
+                    }
+                    continue;
+                }
+
+                callTop--;
+                if ((root[v >>> 6] & (1L << v)) != 0) {
+                    index--;
+                    while (componentBottom < n && rindex[v] <= rindex[stack[componentBottom]]) {
+                        rindex[stack[componentBottom++]] = label;
+                        index--;
+                    }
+                    rindex[v] = label--;
+                } else {
+                    stack[--componentBottom] = v;
+                }
+
+                if (callTop > 0) {
+                    int parent = stack[callTop - 1];
+                    if (rindex[v] < rindex[parent]) {
+                        rindex[parent] = rindex[v];
+                        root[parent >>> 6] &= ~(1L << parent);
+                    }
+                    cursor.resume(parent, resumeAt[callTop - 1]);
+                }
+            }
+        }
+
+        // Labels were handed out from n - 1 downwards as components finished,
+        // so shifting them to start at 0 gives ids in topological order.
+        int numComponents = n - 1 - label;
+        for (int v = 0; v < n; v++) {
+            rindex[v] -= label + 1;
+        }
+
+        metrics.incrementCounter("dfs_visits", dfsVisits);
+        metrics.incrementCounter("edge_traversals", edgeTraversals);
+        metrics.incrementCounter("scc_found", numComponents);
+        metrics.stopTiming("pearce_scc_total");
+
+        return new SCCResult(rindex, numComponents);
+    }
+}
@@ -0,0 +1,269 @@
+package com.smartcity.graph.scc;
+
+import com.smartcity.common.AdjacencyGraph;
+import com.smartcity.common.CSRGraph;
+import com.smartcity.common.DerivedCache;
+import com.smartcity.common.Metrics;
+import java.util.Arrays;
+
+/**
+ * Answers "can u reach v" for vertices of a graph through its condensation
+ * DAG. Two vertices in the same SCC always reach each other; otherwise the
+ * question is asked of their components, whose ids follow a topological order,
+ * so a higher id can never reach a lower one.
+ *
+ * A DFS spanning forest of the condensation gives each component a postorder
+ * number and the postorder interval of its subtree, which proves reachability
+ * along tree edges. A second interval, from the smallest postorder number
+ * reachable over any edge, refutes most remaining pairs. Whatever is left is
+ * settled by full reachability bitsets when the condensation has at most
+ * {@link #DEFAULT_BITSET_LIMIT} components (each row only covers higher ids,
+ * about k^2/16 bytes in total), or by a DFS pruned with the same intervals
+ * above that.
+ *
+ * Queries that reach the pruned search share scratch space and are
+ * serialized; everything else is read-only and safe to call concurrently.
+ */
+public class ReachabilityIndex {
+
+    public static final DerivedCache.Key<ReachabilityIndex> REACHABILITY_INDEX =
+            new DerivedCache.Key<>("reachability_index");
+
+    public static final int DEFAULT_BITSET_LIMIT = 16_384;
+
+    private final SCCResult sccResult;
+    private final CSRGraph condensation;
+    private final int numComponents;
+
+    // Subtree of c in the spanning forest covers postorder [treeLow[c], post[c]];
+    // everything c reaches has postorder in [reachLow[c], post[c]].
+    private final int[] post;
+    private final int[] treeLow;
+    private final int[] reachLow;
+
+    private final long[] bits;
+    private final int[] rowStart;
+
+    private int[] visited;
+    private int[] searchStack;
+    private int searchStamp;
+
+    public ReachabilityIndex(AdjacencyGraph graph, Metrics metrics) {
+        this(TarjanSCC.cachedSCC(graph, metrics), SCCCondensation.cachedCondensationDAG(graph, metrics),
+                DEFAULT_BITSET_LIMIT, metrics);
+    }
+
+    /**
+     * Builds the index over an existing condensation. Component ids of
+     * {@code sccResult} must be the vertices of {@code condensation} and every
+     * condensation edge must go from a lower id to a higher one.
+     */
+    public ReachabilityIndex(SCCResult sccResult, CSRGraph condensation, int bitsetLimit, Metrics metrics) {
+        if (condensation.getNumVertices() != sccResult.getNumComponents()) {
+            throw new IllegalArgumentException("Condensation does not match the SCC result");
+        }
+        metrics.startTiming("reachability_index_build");
+
+        this.sccResult = sccResult;
+        this.condensation = condensation;
+        this.numComponents = condensation.getNumVertices();
+        int k = numComponents;
+        for (int c = 0; c < k; c++) {
+            for (int e = condensation.getEdgeStart(c); e < condensation.getEdgeEnd(c); e++) {
+                if (condensation.getTarget(e) <= c) {
+                    throw new IllegalArgumentException("Component ids must follow a topological order");
+                }
+            }
+        }
+
+        post = new int[k];
+        treeLow = new int[k];
+        reachLow = new int[k];
+        labelSpanningForest();
+
+        for (int c = k - 1; c >= 0; c--) {
+            int low = post[c];
+            for (int e = condensation.getEdgeStart(c); e < condensation.getEdgeEnd(c); e++) {
+                low = Math.min(low, reachLow[condensation.getTarget(e)]);
+            }
+            reachLow[c] = low;
+        }
+
+        if (k <= bitsetLimit) {
+            rowStart = new int[k + 1];
+            int lastWord = (k - 1) >>> 6;
+            for (int c = 0; c < k; c++) {
+                rowStart[c + 1] = rowStart[c] + lastWord - (c >>> 6) + 1;
+            }
+            bits = new long[rowStart[k]];
+            fillBitsets();
+            metrics.incrementCounter("reachability_bitset_words", bits.length);
+        } else {
+            rowStart = null;
+            bits = null;
+        }
+
+        metrics.incrementCounter("reachability_components", k);
+        metrics.stopTiming("reachability_index_build");
+    }
+
+    /**
+     * Returns the index for {@code graph}, reusing the one cached on the graph
+     * while it is unchanged.
+     */
+    public static ReachabilityIndex cachedIndex(AdjacencyGraph graph, Metrics metrics) {
+        return graph.getDerivedCache().computeIfAbsent(REACHABILITY_INDEX,
+                () -> new ReachabilityIndex(graph, metrics));
+    }
+
+    public boolean canReach(int from, int to) {
+        return canReachComponent(sccResult.getComponentId(from), sccResult.getComponentId(to));
+    }
+
+    /**
+     * Answers {@code canReach(sources[i], targets[i])} for every i.
+     */
+    public boolean[] canReach(int[] sources, int[] targets) {
+        if (sources.length != targets.length) {
+            throw new IllegalArgumentException("Source and target arrays differ in length");
+        }
+        boolean[] result = new boolean[sources.length];
+        for (int i = 0; i < sources.length; i++) {
+            result[i] = canReach(sources[i], targets[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Marks {@code reachable[v]} for every vertex reachable from {@code from},
+     * including itself, and returns how many there are.
+     */
+    public int reachableFrom(int from, boolean[] reachable) {
+        int a = sccResult.getComponentId(from);
+        int count = 0;
+        for (int b = a; b < numComponents; b++) {
+            if (canReachComponent(a, b)) {
+                for (int i = sccResult.getMemberStart(b); i < sccResult.getMemberEnd(b); i++) {
+                    reachable[sccResult.getMember(i)] = true;
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    public boolean canReachComponent(int a, int b) {
+        if (a < 0 || a >= numComponents || b < 0 || b >= numComponents) {
+            throw new IllegalArgumentException("Invalid component ID: " + (a < 0 || a >= numComponents ? a : b));
+        }
+        if (a == b) {
+            return true;
+        }
+        if (a > b || post[b] < reachLow[a] || post[b] > post[a]) {
+            return false;
+        }
+        if (treeLow[a] <= post[b]) {
+            return true;
+        }
+        if (bits != null) {
+            int word = rowStart[a] + (b >>> 6) - (a >>> 6);
+            return (bits[word] & (1L << b)) != 0;
+        }
+        return search(a, b);
+    }
+
+    public boolean usesBitsets() {
+        return bits != null;
+    }
+
+    public int getNumComponents() {
+        return numComponents;
+    }
+
+    private void labelSpanningForest() {
+        int k = numComponents;
+        int[] stack = new int[k];
+        int[] nextEdge = new int[k];
+        boolean[] seen = new boolean[k];
+        int counter = 0;
+
+        for (int root = 0; root < k; root++) {
+            if (seen[root]) {
+                continue;
+            }
+            seen[root] = true;
+            treeLow[root] = counter;
+            nextEdge[root] = condensation.getEdgeStart(root);
+            int top = 0;
+            stack[top++] = root;
+
+            while (top > 0) {
+                int c = stack[top - 1];
+                if (nextEdge[c] < condensation.getEdgeEnd(c)) {
+                    int t = condensation.getTarget(nextEdge[c]++);
+                    if (!seen[t]) {
+                        seen[t] = true;
+                        treeLow[t] = counter;
+                        nextEdge[t] = condensation.getEdgeStart(t);
+                        stack[top++] = t;
+                    }
+                } else {
+                    top--;
+                    post[c] = counter++;
+                }
+            }
+        }
+    }
+
+    private void fillBitsets() {
+        for (int c = numComponents - 1; c >= 0; c--) {
+            int row = rowStart[c];
+            int base = c >>> 6;
+            bits[row] |= 1L << c;
+            for (int e = condensation.getEdgeStart(c); e < condensation.getEdgeEnd(c); e++) {
+                int t = condensation.getTarget(e);
+                // Row t spans words (t >>> 6) .. last, a suffix of row c. If t
+                // is already marked, its row has been merged through another child.
+                int offset = row + (t >>> 6) - base;
+                if ((bits[offset] & (1L << t)) != 0) {
+                    continue;
+                }
+                for (int w = rowStart[t]; w < rowStart[t + 1]; w++) {
+                    bits[offset++] |= bits[w];
+                }
+            }
+        }
+    }
+
+    private synchronized boolean search(int a, int b) {
+        if (visited == null) {
+            visited = new int[numComponents];
+            searchStack = new int[numComponents];
+        }
+        if (searchStamp == Integer.MAX_VALUE) {
+            Arrays.fill(visited, 0);
+            searchStamp = 0;
+        }
+        int stamp = ++searchStamp;
+        int top = 0;
+        searchStack[top++] = a;
+        visited[a] = stamp;
+        int target = post[b];
+
+        while (top > 0) {
+            int c = searchStack[--top];
+            for (int e = condensation.getEdgeStart(c); e < condensation.getEdgeEnd(c); e++) {
+                int t = condensation.getTarget(e);
+                if (t == b || (treeLow[t] <= target && target <= post[t])) {
+                    return true;
+                }
+                if (visited[t] == stamp || t > b || target < reachLow[t] || target > post[t]) {
+                    continue;
+                }
+                visited[t] = stamp;
+                searchStack[top++] = t;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,9 @@
+package com.smartcity.graph.scc;
+
+import com.smartcity.common.AdjacencyGraph;
+import com.smartcity.common.Metrics;
+
+public interface SCCAlgorithm {
+
+    SCCResult findSCC(AdjacencyGraph graph, Metrics metrics);
+}
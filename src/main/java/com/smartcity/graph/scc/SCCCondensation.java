@@ -1,43 +1,257 @@
 package com.smartcity.graph.scc;
 
+import com.smartcity.common.AdjacencyGraph;
+import com.smartcity.common.CSRGraph;
+import com.smartcity.common.DerivedCache;
+import com.smartcity.common.EdgeCursor;
 import com.smartcity.common.Graph;
-import java.util.HashSet;
-import java.util.Set;
+import com.smartcity.common.Metrics;
+import com.smartcity.common.WeightAggregation;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
+/**
+ * Builds the condensation of a graph over an {@link SCCResult}. Cross-component
+ * edges are collected per source component, walking its members, and parallel
+ * edges between the same two components are merged with a
+ * {@link WeightAggregation}. Each component's out-edges keep the order in which
+ * their targets first appear, scanning members in ascending vertex order.
+ *
+ * The sequential build is linear: a per-target stamp and slot table merges
+ * duplicates without hashing or per-edge allocation. The parallel build splits
+ * source components across a {@link ForkJoinPool}; each task sorts packed
+ * (target, position) keys per component instead, since a shared table would
+ * need one slot per component per thread. Both produce identical graphs.
+ */
 public class SCCCondensation {
 
-    private final Graph originalGraph;
+    public static final DerivedCache.Key<CSRGraph> CONDENSATION_DAG = new DerivedCache.Key<>("condensation_dag");
+
+    private static final int PARALLEL_CHUNK_VERTICES = 8192;
+
+    private final AdjacencyGraph originalGraph;
     private final SCCResult sccResult;
 
-    public SCCCondensation(Graph originalGraph, SCCResult sccResult) {
+    public SCCCondensation(AdjacencyGraph originalGraph, SCCResult sccResult) {
         this.originalGraph = originalGraph;
         this.sccResult = sccResult;
     }
 
+    /**
+     * Returns an immutable snapshot of the condensation of {@code graph} over
+     * its cached SCCs, reusing the cached snapshot while the graph is unchanged.
+     */
+    public static CSRGraph cachedCondensationDAG(AdjacencyGraph graph, Metrics metrics) {
+        SCCResult sccResult = TarjanSCC.cachedSCC(graph, metrics);
+        return graph.getDerivedCache().computeIfAbsent(CONDENSATION_DAG,
+                () -> new SCCCondensation(graph, sccResult).buildCondensation(WeightAggregation.FIRST));
+    }
+
+    /**
+     * Mutable copy of the condensation, keeping the first weight seen between
+     * each pair of components.
+     */
     public Graph buildCondensationDAG() {
-        int numComponents = sccResult.getNumComponents();
-        Graph condensationDAG = new Graph(numComponents, true);
+        CSRGraph dag = buildCondensation(WeightAggregation.FIRST);
+        Graph condensationDAG = new Graph(dag.getNumVertices(), true);
+        for (int c = 0; c < dag.getNumVertices(); c++) {
+            for (int e = dag.getEdgeStart(c); e < dag.getEdgeEnd(c); e++) {
+                condensationDAG.addEdge(c, dag.getTarget(e), dag.getWeight(e));
+            }
+        }
+        return condensationDAG;
+    }
+
+    public CSRGraph buildCondensation(WeightAggregation aggregation) {
+        int k = sccResult.getNumComponents();
+        int[] offsets = new int[k + 1];
+        int[] stamp = new int[k];
+        int[] slot = new int[k];
+        Arrays.fill(stamp, -1);
+        EdgeCursor cursor = originalGraph.edgeCursor();
+
+        for (int c = 0; c < k; c++) {
+            int distinct = 0;
+            for (int i = sccResult.getMemberStart(c); i < sccResult.getMemberEnd(c); i++) {
+                cursor.reset(sccResult.getMember(i));
+                while (cursor.next()) {
+                    int t = sccResult.getComponentId(cursor.target());
+                    if (t != c && stamp[t] != c) {
+                        stamp[t] = c;
+                        distinct++;
+                    }
+                }
+            }
+            offsets[c + 1] = offsets[c] + distinct;
+        }
+
+        int[] targets = new int[offsets[k]];
+        double[] weights = new double[offsets[k]];
+        Arrays.fill(stamp, -1);
+        for (int c = 0; c < k; c++) {
+            int size = offsets[c];
+            for (int i = sccResult.getMemberStart(c); i < sccResult.getMemberEnd(c); i++) {
+                cursor.reset(sccResult.getMember(i));
+                while (cursor.next()) {
+                    int t = sccResult.getComponentId(cursor.target());
+                    if (t == c) {
+                        continue;
+                    }
+                    if (stamp[t] != c) {
+                        stamp[t] = c;
+                        slot[t] = size;
+                        targets[size] = t;
+                        weights[size++] = aggregation.initial(cursor.weight());
+                    } else {
+                        weights[slot[t]] = aggregation.combine(weights[slot[t]], cursor.weight());
+                    }
+                }
+            }
+        }
+
+        return CSRGraph.fromArrays(k, true, offsets, targets, weights);
+    }
 
-        Set<String> addedEdges = new HashSet<>();
+    public CSRGraph buildCondensation(WeightAggregation aggregation, ForkJoinPool pool) {
+        int k = sccResult.getNumComponents();
+        int[] offsets = new int[k + 1];
+        Chunk root = new Chunk(0, k, aggregation);
+        pool.invoke(root);
 
-        for (int u = 0; u < originalGraph.getNumVertices(); u++) {
-            int compU = sccResult.getComponentId(u);
+        for (int c = 0; c < k; c++) {
+            offsets[c + 1] += offsets[c] + root.counts[c];
+        }
+        int[] targets = new int[offsets[k]];
+        double[] weights = new double[offsets[k]];
+        pool.invoke(new Place(root, offsets, targets, weights));
 
-            for (Graph.Edge edge : originalGraph.getEdges(u)) {
-                int v = edge.to;
-                int compV = sccResult.getComponentId(v);
+        return CSRGraph.fromArrays(k, true, offsets, targets, weights);
+    }
 
-                if (compU != compV) {
-                    String edgeKey = compU + "->" + compV;
-                    if (!addedEdges.contains(edgeKey)) {
-                        condensationDAG.addEdge(compU, compV, edge.weight);
-                        addedEdges.add(edgeKey);
+    /**
+     * Merges the cross edges of components [from, to). Leaves write their
+     * per-component counts into the shared {@code counts} array (disjoint
+     * ranges) and keep their merged edges until {@link Place} copies them out.
+     */
+    private final class Chunk extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final WeightAggregation aggregation;
+        private final int[] counts;
+        private Chunk left;
+        private Chunk right;
+        private int[] chunkTargets;
+        private double[] chunkWeights;
+
+        Chunk(int from, int to, WeightAggregation aggregation) {
+            this(from, to, aggregation, new int[sccResult.getNumComponents()]);
+        }
+
+        private Chunk(int from, int to, WeightAggregation aggregation, int[] counts) {
+            this.from = from;
+            this.to = to;
+            this.aggregation = aggregation;
+            this.counts = counts;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1
+                    && sccResult.getMemberEnd(to - 1) - sccResult.getMemberStart(from) > PARALLEL_CHUNK_VERTICES) {
+                int mid = (from + to) >>> 1;
+                left = new Chunk(from, mid, aggregation, counts);
+                right = new Chunk(mid, to, aggregation, counts);
+                invokeAll(left, right);
+                return;
+            }
+
+            EdgeCursor cursor = originalGraph.edgeCursor();
+            long[] keys = new long[16];
+            double[] edgeWeights = new double[16];
+            chunkTargets = new int[16];
+            chunkWeights = new double[16];
+            int size = 0;
+
+            for (int c = from; c < to; c++) {
+                int cross = 0;
+                for (int i = sccResult.getMemberStart(c); i < sccResult.getMemberEnd(c); i++) {
+                    cursor.reset(sccResult.getMember(i));
+                    while (cursor.next()) {
+                        int t = sccResult.getComponentId(cursor.target());
+                        if (t != c) {
+                            if (cross == keys.length) {
+                                keys = Arrays.copyOf(keys, cross * 2);
+                                edgeWeights = Arrays.copyOf(edgeWeights, cross * 2);
+                            }
+                            keys[cross] = (long) t << 32 | cross;
+                            edgeWeights[cross++] = cursor.weight();
+                        }
+                    }
+                }
+
+                // Group by target (positions ascending within each run), merge
+                // each run, then restore first-appearance order.
+                Arrays.sort(keys, 0, cross);
+                int distinct = 0;
+                for (int i = 0; i < cross; ) {
+                    int t = (int) (keys[i] >>> 32);
+                    int first = (int) keys[i];
+                    double weight = aggregation.initial(edgeWeights[first]);
+                    int j = i + 1;
+                    for (; j < cross && (int) (keys[j] >>> 32) == t; j++) {
+                        weight = aggregation.combine(weight, edgeWeights[(int) keys[j]]);
                     }
+                    edgeWeights[first] = weight;
+                    keys[distinct++] = (long) first << 32 | t;
+                    i = j;
                 }
+                Arrays.sort(keys, 0, distinct);
+
+                if (size + distinct > chunkTargets.length) {
+                    int capacity = Math.max(size + distinct, chunkTargets.length * 2);
+                    chunkTargets = Arrays.copyOf(chunkTargets, capacity);
+                    chunkWeights = Arrays.copyOf(chunkWeights, capacity);
+                }
+                for (int i = 0; i < distinct; i++) {
+                    int first = (int) (keys[i] >>> 32);
+                    chunkTargets[size] = (int) keys[i];
+                    chunkWeights[size++] = edgeWeights[first];
+                }
+                counts[c] = distinct;
             }
         }
+    }
 
-        return condensationDAG;
+    private static final class Place extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Chunk chunk;
+        private final int[] offsets;
+        private final int[] targets;
+        private final double[] weights;
+
+        Place(Chunk chunk, int[] offsets, int[] targets, double[] weights) {
+            this.chunk = chunk;
+            this.offsets = offsets;
+            this.targets = targets;
+            this.weights = weights;
+        }
+
+        @Override
+        protected void compute() {
+            if (chunk.left != null) {
+                invokeAll(new Place(chunk.left, offsets, targets, weights),
+                        new Place(chunk.right, offsets, targets, weights));
+                return;
+            }
+            int start = offsets[chunk.from];
+            int length = offsets[chunk.to] - start;
+            System.arraycopy(chunk.chunkTargets, 0, targets, start, length);
+            System.arraycopy(chunk.chunkWeights, 0, weights, start, length);
+        }
     }
 
     public int[] getVertexToComponentMapping() {
@@ -49,7 +263,7 @@ public class SCCCondensation {
     }
 
     public String getCondensationStats() {
-        Graph dag = buildCondensationDAG();
+        CSRGraph dag = buildCondensation(WeightAggregation.FIRST);
 
         StringBuilder sb = new StringBuilder();
         sb.append("=== Condensation Statistics ===\n");
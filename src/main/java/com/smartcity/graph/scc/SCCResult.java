@@ -1,21 +1,103 @@
 package com.smartcity.graph.scc;
 
+import com.smartcity.common.IntListView;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.RandomAccess;
 
+/**
+ * SCC partition stored as a primitive component id per vertex plus a CSR
+ * grouping of the vertices by component ({@code componentOffsets} and
+ * {@code members}, each component's members in ascending order): about
+ * 8 bytes per vertex. Component lists are zero-copy views that box vertices
+ * only when read.
+ */
 public class SCCResult {
 
-    private final List<List<Integer>> components;
     private final int[] componentId;
+    private final int[] componentOffsets;
+    private final int[] members;
     private final int numComponents;
 
+    /**
+     * Builds a result from per-vertex ids in [0, numComponents). The array is
+     * adopted, not copied.
+     */
+    public SCCResult(int[] componentId, int numComponents) {
+        int n = componentId.length;
+        int[] offsets = new int[numComponents + 1];
+        for (int v = 0; v < n; v++) {
+            int c = componentId[v];
+            if (c < 0 || c >= numComponents) {
+                throw new IllegalArgumentException(
+                        String.format("Vertex %d has component ID %d outside [0, %d)", v, c, numComponents));
+            }
+            offsets[c + 1]++;
+        }
+        for (int c = 0; c < numComponents; c++) {
+            offsets[c + 1] += offsets[c];
+        }
+
+        int[] grouped = new int[n];
+        int[] next = Arrays.copyOf(offsets, numComponents);
+        for (int v = 0; v < n; v++) {
+            grouped[next[componentId[v]]++] = v;
+        }
+
+        this.componentId = componentId;
+        this.componentOffsets = offsets;
+        this.members = grouped;
+        this.numComponents = numComponents;
+    }
+
+    /**
+     * Builds a result from component lists and the matching per-vertex ids.
+     * The lists must partition the vertices exactly as {@code componentId}
+     * does; they are checked but not kept, so {@link #getComponents()} lists
+     * each component's members in ascending order, not in the supplied order.
+     */
     public SCCResult(List<List<Integer>> components, int[] componentId) {
-        this.components = components;
-        this.componentId = componentId.clone();
-        this.numComponents = components.size();
+        this(checkedIds(components, componentId), components.size());
     }
 
+    private static int[] checkedIds(List<List<Integer>> components, int[] componentId) {
+        int n = componentId.length;
+        boolean[] listed = new boolean[n];
+        int count = 0;
+        for (int c = 0; c < components.size(); c++) {
+            for (int v : components.get(c)) {
+                if (v < 0 || v >= n) {
+                    throw new IllegalArgumentException(
+                            String.format("Component %d lists vertex %d outside [0, %d)", c, v, n));
+                }
+                if (listed[v] || componentId[v] != c) {
+                    throw new IllegalArgumentException(
+                            String.format("Component %d lists vertex %d, whose component ID is %d",
+                                    c, v, componentId[v]));
+                }
+                listed[v] = true;
+                count++;
+            }
+        }
+        if (count != n) {
+            throw new IllegalArgumentException(
+                    String.format("Component lists cover %d of %d vertices", count, n));
+        }
+        return componentId.clone();
+    }
+
+    /**
+     * Read-only views of all components, indexed by component id. Vertices are
+     * boxed only as they are read.
+     */
     public List<List<Integer>> getComponents() {
-        return components;
+        return new ComponentList();
+    }
+
+    public List<Integer> getComponent(int componentId) {
+        validateComponent(componentId);
+        return new IntListView(members, componentOffsets[componentId], componentOffsets[componentId + 1]);
     }
 
     public int getComponentId(int vertex) {
@@ -27,24 +109,52 @@ public class SCCResult {
     }
 
     public int getComponentSize(int componentId) {
-        if (componentId < 0 || componentId >= components.size()) {
-            throw new IllegalArgumentException("Invalid component ID: " + componentId);
-        }
-        return components.get(componentId).size();
+        validateComponent(componentId);
+        return componentOffsets[componentId + 1] - componentOffsets[componentId];
+    }
+
+    public int getMemberStart(int componentId) {
+        return componentOffsets[componentId];
+    }
+
+    public int getMemberEnd(int componentId) {
+        return componentOffsets[componentId + 1];
+    }
+
+    public int getMember(int index) {
+        return members[index];
     }
 
     public boolean inSameComponent(int u, int v) {
         return componentId[u] == componentId[v];
     }
 
+    private void validateComponent(int componentId) {
+        if (componentId < 0 || componentId >= numComponents) {
+            throw new IllegalArgumentException("Invalid component ID: " + componentId);
+        }
+    }
+
+    private final class ComponentList extends AbstractList<List<Integer>> implements RandomAccess {
+        @Override
+        public List<Integer> get(int index) {
+            return getComponent(index);
+        }
+
+        @Override
+        public int size() {
+            return numComponents;
+        }
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
         sb.append(String.format("SCC Result: %d components\n", numComponents));
 
-        for (int i = 0; i < components.size(); i++) {
+        for (int i = 0; i < numComponents; i++) {
             sb.append(String.format("Component %d (size %d): %s\n",
-                    i, components.get(i).size(), components.get(i)));
+                    i, getComponentSize(i), getComponent(i)));
         }
 
         return sb.toString();
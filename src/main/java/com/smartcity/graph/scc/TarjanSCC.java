@@ -1,24 +1,47 @@
 package com.smartcity.graph.scc;
 
-import com.smartcity.common.Graph;
+import com.smartcity.common.AdjacencyGraph;
+import com.smartcity.common.DerivedCache;
+import com.smartcity.common.EdgeCursor;
 import com.smartcity.common.Metrics;
 import java.util.*;
 
-public class TarjanSCC {
+public class TarjanSCC implements SCCAlgorithm {
 
-    private final Graph graph;
+    public static final DerivedCache.Key<SCCResult> SCC_RESULT = new DerivedCache.Key<>("scc_result");
+
+    private final AdjacencyGraph graph;
     private final Metrics metrics;
 
     private int[] discoveryTime;
     private int[] lowLink;
     private boolean[] onStack;
-    private Stack<Integer> stack;
+    private EdgeCursor cursor;
+    private long[] resumeAt;
+    private int[] callStack;
+    private int[] sccStack;
+    private int sccTop;
     private int time;
 
-    private List<List<Integer>> components;
+    private int dfsVisits;
+    private int edgeTraversals;
+    private int backEdges;
+    private int sccPops;
+
+    private int numComponents;
     private int[] componentId;
 
-    public TarjanSCC(Graph graph, Metrics metrics) {
+    /**
+     * Unbound instance for use through {@link SCCAlgorithm}; its
+     * {@link #findSCC()} throws. Callers outside the package use
+     * {@link #algorithm()}.
+     */
+    TarjanSCC() {
+        this.graph = null;
+        this.metrics = null;
+    }
+
+    public TarjanSCC(AdjacencyGraph graph, Metrics metrics) {
         if (!graph.isDirected()) {
             throw new IllegalArgumentException("SCC algorithm requires a directed graph");
         }
@@ -26,7 +49,32 @@ public class TarjanSCC {
         this.metrics = metrics;
     }
 
+    /**
+     * Tarjan as an {@link SCCAlgorithm}, for callers that pick an engine at
+     * run time.
+     */
+    public static SCCAlgorithm algorithm() {
+        return new TarjanSCC();
+    }
+
+    /**
+     * Returns the SCCs of {@code graph}, reusing the result cached on the graph
+     * while it is unchanged. The returned result is shared.
+     */
+    public static SCCResult cachedSCC(AdjacencyGraph graph, Metrics metrics) {
+        TarjanSCC tarjan = new TarjanSCC(graph, metrics);
+        return graph.getDerivedCache().computeIfAbsent(SCC_RESULT, tarjan::findSCC);
+    }
+
+    @Override
+    public SCCResult findSCC(AdjacencyGraph graph, Metrics metrics) {
+        return new TarjanSCC(graph, metrics).findSCC();
+    }
+
     public SCCResult findSCC() {
+        if (graph == null) {
+            throw new IllegalStateException("No graph bound; use findSCC(graph, metrics)");
+        }
         metrics.startTiming("tarjan_scc_total");
 
         int n = graph.getNumVertices();
@@ -34,73 +82,110 @@ public class TarjanSCC {
         discoveryTime = new int[n];
         lowLink = new int[n];
         onStack = new boolean[n];
-        stack = new Stack<>();
-        components = new ArrayList<>();
+        cursor = graph.edgeCursor();
+        resumeAt = new long[n];
+        callStack = new int[n];
+        sccStack = new int[n];
+        sccTop = 0;
+        numComponents = 0;
         componentId = new int[n];
         time = 0;
+        dfsVisits = edgeTraversals = backEdges = sccPops = 0;
 
         Arrays.fill(discoveryTime, -1);
         Arrays.fill(componentId, -1);
 
+        int dfsStarts = 0;
         for (int v = 0; v < n; v++) {
             if (discoveryTime[v] == -1) {
-                metrics.incrementCounter("dfs_starts");
+                dfsStarts++;
                 tarjanDFS(v);
             }
         }
 
         assignComponentIds();
 
+        metrics.incrementCounter("dfs_starts", dfsStarts);
+        metrics.incrementCounter("dfs_visits", dfsVisits);
+        metrics.incrementCounter("edge_traversals", edgeTraversals);
+        metrics.incrementCounter("back_edges", backEdges);
+        metrics.incrementCounter("scc_pops", sccPops);
+        metrics.incrementCounter("scc_found", numComponents);
+
         metrics.stopTiming("tarjan_scc_total");
 
-        return new SCCResult(components, componentId);
+        return new SCCResult(componentId, numComponents);
     }
 
-    private void tarjanDFS(int u) {
+    /**
+     * Iterative DFS. The single edge cursor always walks the top frame's
+     * edges; descending saves its place in {@code resumeAt} and returning
+     * resumes the parent there, so each edge is decoded once.
+     */
+    private void tarjanDFS(int root) {
+        int frameTop = 0;
+        visit(root);
+        callStack[frameTop++] = root;
+        cursor.reset(root);
+
+        while (frameTop > 0) {
+            int u = callStack[frameTop - 1];
+
+            if (cursor.next()) {
+                int v = cursor.target();
+                edgeTraversals++;
+
+                if (discoveryTime[v] == -1) {
+                    resumeAt[frameTop - 1] = cursor.position();
+                    visit(v);
+                    callStack[frameTop++] = v;
+                    cursor.reset(v);
+                } else if (onStack[v]) {
+                    lowLink[u] = Math.min(lowLink[u], discoveryTime[v]);
+                    backEdges++;
+                }
+                continue;
+            }
 
+            frameTop--;
+            if (lowLink[u] == discoveryTime[u]) {
+                popComponent(u);
+            }
+            if (frameTop > 0) {
+                int parent = callStack[frameTop - 1];
+                lowLink[parent] = Math.min(lowLink[parent], lowLink[u]);
+                cursor.resume(parent, resumeAt[frameTop - 1]);
+            }
+        }
+    }
+
+    private void visit(int u) {
         discoveryTime[u] = lowLink[u] = time++;
-        stack.push(u);
+        sccStack[sccTop++] = u;
         onStack[u] = true;
+        dfsVisits++;
+    }
 
-        metrics.incrementCounter("dfs_visits");
-
-        for (Graph.Edge edge : graph.getEdges(u)) {
-            int v = edge.to;
-            metrics.incrementCounter("edge_traversals");
-
-            if (discoveryTime[v] == -1) {
-
-                tarjanDFS(v);
-                lowLink[u] = Math.min(lowLink[u], lowLink[v]);
-            } else if (onStack[v]) {
+    private void popComponent(int u) {
+        int v;
+        do {
+            v = sccStack[--sccTop];
+            onStack[v] = false;
+            componentId[v] = numComponents;
+            sccPops++;
+        } while (v != u);
 
-                lowLink[u] = Math.min(lowLink[u], discoveryTime[v]);
-                metrics.incrementCounter("back_edges");
-            }
-        }
-
-        if (lowLink[u] == discoveryTime[u]) {
-            List<Integer> component = new ArrayList<>();
-            int v;
-            do {
-                v = stack.pop();
-                onStack[v] = false;
-                component.add(v);
-                metrics.incrementCounter("scc_pops");
-            } while (v != u);
-
-            components.add(component);
-            metrics.incrementCounter("scc_found");
-        }
+        numComponents++;
     }
 
+    /**
+     * Components pop in reverse topological order; flip the discovery
+     * numbering so ids follow the topological order of the condensation.
+     */
     private void assignComponentIds() {
-        int compId = components.size() - 1;
-        for (List<Integer> component : components) {
-            for (int vertex : component) {
-                componentId[vertex] = compId;
-            }
-            compId--;
+        int last = numComponents - 1;
+        for (int v = 0; v < componentId.length; v++) {
+            componentId[v] = last - componentId[v];
         }
     }
 
@@ -0,0 +1,150 @@
+package com.smartcity.graph.scc;
+
+import com.smartcity.common.AdjacencyGraph;
+import com.smartcity.common.CSRGraph;
+import com.smartcity.common.GraphBuilder;
+import com.smartcity.common.Metrics;
+
+/**
+ * Runs another {@link SCCAlgorithm} behind a linear-time trimming pass. Every
+ * vertex with no remaining in-edges or no remaining out-edges is a singleton
+ * SCC; peeling them repeatedly (sources, sinks and the DAG-shaped tails they
+ * expose) usually leaves a small core, and only that core, relabelled densely,
+ * is handed to the wrapped engine.
+ *
+ * Ids follow a topological order of the condensation: vertices peeled with no
+ * in-edges come first in peel order, then the core's components in the
+ * engine's own topological numbering, then vertices peeled with no out-edges
+ * in reverse peel order. The partition is identical to an untrimmed run.
+ */
+public class TrimmedSCC implements SCCAlgorithm {
+
+    private static final byte PEELED_SOURCE = 1;
+    private static final byte PEELED_SINK = 2;
+
+    private final SCCAlgorithm core;
+
+    public TrimmedSCC(SCCAlgorithm core) {
+        this.core = core;
+    }
+
+    @Override
+    public SCCResult findSCC(AdjacencyGraph graph, Metrics metrics) {
+        if (!graph.isDirected()) {
+            throw new IllegalArgumentException("SCC algorithm requires a directed graph");
+        }
+
+        metrics.startTiming("scc_trimming");
+
+        int n = graph.getNumVertices();
+        CSRGraph csr = CSRGraph.fromGraph(graph).withReverseIndex();
+        int[] inDegree = new int[n];
+        int[] outDegree = new int[n];
+        for (int v = 0; v < n; v++) {
+            inDegree[v] = csr.getInDegree(v);
+            outDegree[v] = csr.getOutDegree(v);
+        }
+
+        // queue holds peeled vertices in peel order; removed[v] records how v
+        // was peeled so the final numbering can place it.
+        int[] queue = new int[n];
+        byte[] removed = new byte[n];
+        int tail = 0;
+        for (int v = 0; v < n; v++) {
+            if (inDegree[v] == 0) {
+                removed[v] = PEELED_SOURCE;
+                queue[tail++] = v;
+            } else if (outDegree[v] == 0) {
+                removed[v] = PEELED_SINK;
+                queue[tail++] = v;
+            }
+        }
+
+        for (int head = 0; head < tail; head++) {
+            int u = queue[head];
+            for (int e = csr.getEdgeStart(u); e < csr.getEdgeEnd(u); e++) {
+                int v = csr.getTarget(e);
+                if (removed[v] == 0 && --inDegree[v] == 0) {
+                    removed[v] = PEELED_SOURCE;
+                    queue[tail++] = v;
+                }
+            }
+            for (int i = 0; i < csr.getInDegree(u); i++) {
+                int w = csr.getInEdgeSource(u, i);
+                if (removed[w] == 0 && --outDegree[w] == 0) {
+                    removed[w] = PEELED_SINK;
+                    queue[tail++] = w;
+                }
+            }
+        }
+
+        int peeled = tail;
+        int coreSize = n - peeled;
+        metrics.incrementCounter("trimmed_vertices", peeled);
+        metrics.incrementCounter("scc_core_vertices", coreSize);
+        metrics.stopTiming("scc_trimming");
+
+        int[] componentId = new int[n];
+        int sources = 0;
+        for (int i = 0; i < peeled; i++) {
+            int v = queue[i];
+            if (removed[v] == PEELED_SOURCE) {
+                componentId[v] = sources++;
+            }
+        }
+
+        int coreComponents = 0;
+        if (coreSize > 0) {
+            int[] coreVertices = new int[coreSize];
+            int[] coreIndex = outDegree;
+            int size = 0;
+            for (int v = 0; v < n; v++) {
+                if (removed[v] == 0) {
+                    coreIndex[v] = size;
+                    coreVertices[size++] = v;
+                }
+            }
+
+            SCCResult coreResult = core.findSCC(induceCore(csr, coreVertices, coreIndex, removed), metrics);
+            for (int i = 0; i < coreSize; i++) {
+                componentId[coreVertices[i]] = sources + coreResult.getComponentId(i);
+            }
+            coreComponents = coreResult.getNumComponents();
+        }
+
+        int nextId = sources + coreComponents;
+        for (int i = peeled - 1; i >= 0; i--) {
+            int v = queue[i];
+            if (removed[v] == PEELED_SINK) {
+                componentId[v] = nextId++;
+            }
+        }
+
+        return new SCCResult(componentId, nextId);
+    }
+
+    private static CSRGraph induceCore(CSRGraph csr, int[] coreVertices, int[] coreIndex, byte[] removed) {
+        int coreEdges = 0;
+        for (int v : coreVertices) {
+            for (int e = csr.getEdgeStart(v); e < csr.getEdgeEnd(v); e++) {
+                if (removed[csr.getTarget(e)] == 0) {
+                    coreEdges++;
+                }
+            }
+        }
+
+        int[] from = new int[coreEdges];
+        int[] to = new int[coreEdges];
+        int edge = 0;
+        for (int v : coreVertices) {
+            for (int e = csr.getEdgeStart(v); e < csr.getEdgeEnd(v); e++) {
+                int w = csr.getTarget(e);
+                if (removed[w] == 0) {
+                    from[edge] = coreIndex[v];
+                    to[edge++] = coreIndex[w];
+                }
+            }
+        }
+        return new GraphBuilder(coreVertices.length, true, 0).addEdges(from, to, null).build();
+    }
+}
@@ -0,0 +1,81 @@
+package com.smartcity.graph.topo;
+
+import com.smartcity.common.AdjacencyGraph;
+import com.smartcity.common.EdgeCursor;
+import com.smartcity.common.IntListView;
+import java.util.List;
+
+/**
+ * Dedicated cycle check for directed graphs. An iterative three-colour DFS
+ * stops at the first back edge and reads the cycle off its own call stack, so
+ * acyclic graphs cost one DFS and cyclic ones usually far less. Nothing is
+ * recorded in {@link com.smartcity.common.Metrics}. One edge cursor walks
+ * the top frame and each frame saves its place in a long, so edges are read
+ * sequentially on every representation; working memory is an int, a long and
+ * a byte array of length n.
+ */
+public final class CycleDetector {
+
+    private static final byte UNVISITED = 0;
+    private static final byte ACTIVE = 1;
+    private static final byte DONE = 2;
+
+    private CycleDetector() {
+    }
+
+    public static boolean isDAG(AdjacencyGraph graph) {
+        return findCycle(graph) == null;
+    }
+
+    /**
+     * Returns the vertices of one directed cycle, in order (each has an edge
+     * to the next and the last has an edge back to the first), or
+     * {@code null} if the graph is acyclic.
+     */
+    public static List<Integer> findCycle(AdjacencyGraph graph) {
+        if (!graph.isDirected()) {
+            throw new IllegalArgumentException("Cycle detection requires a directed graph");
+        }
+
+        int n = graph.getNumVertices();
+        byte[] state = new byte[n];
+        int[] callStack = new int[n];
+        long[] resumeAt = new long[n];
+        EdgeCursor cursor = graph.edgeCursor();
+
+        for (int start = 0; start < n; start++) {
+            if (state[start] != UNVISITED) {
+                continue;
+            }
+            int top = 0;
+            callStack[top++] = start;
+            state[start] = ACTIVE;
+            cursor.reset(start);
+
+            while (top > 0) {
+                if (!cursor.next()) {
+                    state[callStack[--top]] = DONE;
+                    if (top > 0) {
+                        cursor.resume(callStack[top - 1], resumeAt[top - 1]);
+                    }
+                    continue;
+                }
+                int v = cursor.target();
+
+                if (state[v] == UNVISITED) {
+                    resumeAt[top - 1] = cursor.position();
+                    state[v] = ACTIVE;
+                    callStack[top++] = v;
+                    cursor.reset(v);
+                } else if (state[v] == ACTIVE) {
+                    int from = top - 1;
+                    while (callStack[from] != v) {
+                        from--;
+                    }
+                    return new IntListView(callStack, from, top);
+                }
+            }
+        }
+        return null;
+    }
+}
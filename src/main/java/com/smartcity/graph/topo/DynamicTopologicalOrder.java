@@ -0,0 +1,268 @@
+package com.smartcity.graph.topo;
+
+import com.smartcity.common.AdjacencyGraph;
+import com.smartcity.common.EdgeCursor;
+import com.smartcity.common.IntListView;
+import com.smartcity.common.Metrics;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A topological order of a DAG kept valid while edges are inserted, after
+ * Pearce and Kelly. It is seeded from a Kahn order and keeps its own copy of
+ * the adjacency in both directions.
+ *
+ * Inserting {@code from -> to} when {@code from} already precedes {@code to}
+ * costs O(1). Otherwise only the window of positions between the two
+ * endpoints is affected: a forward search from {@code to} and a backward
+ * search from {@code from}, both confined to that window, collect the
+ * vertices that must swap sides, and those vertices are reassigned the same
+ * set of positions, backward set first. If the forward search reaches
+ * {@code from} the edge would close a cycle and is rejected, leaving the
+ * structure unchanged.
+ */
+public class DynamicTopologicalOrder {
+
+    private final Metrics metrics;
+    private final int numVertices;
+
+    private final int[] position;
+    private final int[] vertexAt;
+
+    private final int[][] outEdges;
+    private final int[] outCount;
+    private final int[][] inEdges;
+    private final int[] inCount;
+
+    private final int[] mark;
+    private final int[] stack;
+    private int stamp;
+
+    public DynamicTopologicalOrder(AdjacencyGraph graph, Metrics metrics) {
+        this(graph, seedOrder(graph, metrics), metrics);
+    }
+
+    /**
+     * Seeds the structure with {@code initialOrder}, which must be a
+     * topological order of {@code graph}.
+     */
+    public DynamicTopologicalOrder(AdjacencyGraph graph, int[] initialOrder, Metrics metrics) {
+        if (!graph.isDirected()) {
+            throw new IllegalArgumentException("Topological sort requires a directed graph");
+        }
+        this.metrics = metrics;
+        this.numVertices = graph.getNumVertices();
+        if (initialOrder.length != numVertices) {
+            throw new IllegalArgumentException("Initial order does not cover every vertex");
+        }
+
+        position = new int[numVertices];
+        vertexAt = initialOrder.clone();
+        Arrays.fill(position, -1);
+        for (int i = 0; i < numVertices; i++) {
+            int v = vertexAt[i];
+            validateVertex(v);
+            if (position[v] != -1) {
+                throw new IllegalArgumentException("Initial order lists vertex " + v + " twice");
+            }
+            position[v] = i;
+        }
+
+        outEdges = new int[numVertices][];
+        outCount = new int[numVertices];
+        inEdges = new int[numVertices][];
+        inCount = new int[numVertices];
+        mark = new int[numVertices];
+        stack = new int[numVertices];
+
+        int[] inDegrees = graph.getInDegrees();
+        for (int v = 0; v < numVertices; v++) {
+            outEdges[v] = new int[graph.getOutDegree(v)];
+            inEdges[v] = new int[inDegrees[v]];
+        }
+        EdgeCursor cursor = graph.edgeCursor();
+        for (int u = 0; u < numVertices; u++) {
+            cursor.reset(u);
+            while (cursor.next()) {
+                int v = cursor.target();
+                if (position[u] >= position[v]) {
+                    throw new IllegalArgumentException(
+                            String.format("Initial order places %d before %d despite edge %d -> %d", v, u, u, v));
+                }
+                outEdges[u][outCount[u]++] = v;
+                inEdges[v][inCount[v]++] = u;
+            }
+        }
+    }
+
+    private static int[] seedOrder(AdjacencyGraph graph, Metrics metrics) {
+        int[] order = new KahnTopologicalSort().sortToArray(graph, metrics);
+        if (order == null) {
+            throw new IllegalArgumentException("Graph contains cycles - not a DAG");
+        }
+        return order;
+    }
+
+    /**
+     * Inserts {@code from -> to} and repairs the order. Returns {@code false},
+     * changing nothing, if the edge would create a cycle.
+     */
+    public boolean addEdge(int from, int to) {
+        validateVertex(from);
+        validateVertex(to);
+        metrics.incrementCounter("dynamic_topo_insertions");
+        if (from == to) {
+            metrics.incrementCounter("dynamic_topo_rejected");
+            return false;
+        }
+
+        int lower = position[to];
+        int upper = position[from];
+        if (lower > upper) {
+            append(outEdges, outCount, from, to);
+            append(inEdges, inCount, to, from);
+            return true;
+        }
+
+        // Forward search from `to` within the window; its vertices are marked
+        // with forwardStamp and moved behind the backward set.
+        int forwardStamp = nextStamp();
+        int forwardSize = search(to, forwardStamp, upper, true, from);
+        if (forwardSize < 0) {
+            metrics.incrementCounter("dynamic_topo_rejected");
+            return false;
+        }
+        int[] forward = Arrays.copyOf(stack, forwardSize);
+
+        int backwardStamp = nextStamp();
+        int backwardSize = search(from, backwardStamp, lower, false, -1);
+        int[] backward = Arrays.copyOf(stack, backwardSize);
+
+        reorder(backward, forward);
+        metrics.incrementCounter("dynamic_topo_reordered", forwardSize + backwardSize);
+
+        append(outEdges, outCount, from, to);
+        append(inEdges, inCount, to, from);
+        return true;
+    }
+
+    public int getPosition(int vertex) {
+        validateVertex(vertex);
+        return position[vertex];
+    }
+
+    public boolean precedes(int u, int v) {
+        return getPosition(u) < getPosition(v);
+    }
+
+    /**
+     * Live read-only view of the current order; it changes as edges are added.
+     */
+    public List<Integer> getOrder() {
+        return new IntListView(vertexAt);
+    }
+
+    public int[] toArray() {
+        return vertexAt.clone();
+    }
+
+    public int getNumVertices() {
+        return numVertices;
+    }
+
+    /**
+     * Collects into {@link #stack} every vertex reachable from {@code start}
+     * (forward) or reaching it (backward) without leaving the window bounded
+     * by {@code limit}. Returns the number collected, or -1 if the forward
+     * search meets {@code target}.
+     */
+    private int search(int start, int searchStamp, int limit, boolean forwardSearch, int target) {
+        int size = 0;
+        int scanned = 0;
+        mark[start] = searchStamp;
+        stack[size++] = start;
+
+        // The collected prefix doubles as the work list.
+        while (scanned < size) {
+            int u = stack[scanned++];
+            int[] edges = forwardSearch ? outEdges[u] : inEdges[u];
+            int degree = forwardSearch ? outCount[u] : inCount[u];
+            for (int i = 0; i < degree; i++) {
+                int w = edges[i];
+                if (w == target) {
+                    return -1;
+                }
+                if (mark[w] == searchStamp) {
+                    continue;
+                }
+                if (forwardSearch ? position[w] < limit : position[w] > limit) {
+                    mark[w] = searchStamp;
+                    stack[size++] = w;
+                }
+            }
+        }
+        return size;
+    }
+
+    private void reorder(int[] backward, int[] forward) {
+        sortByPosition(backward);
+        sortByPosition(forward);
+
+        int[] slots = new int[backward.length + forward.length];
+        for (int i = 0; i < backward.length; i++) {
+            slots[i] = position[backward[i]];
+        }
+        for (int i = 0; i < forward.length; i++) {
+            slots[backward.length + i] = position[forward[i]];
+        }
+        Arrays.sort(slots);
+
+        int next = 0;
+        for (int v : backward) {
+            place(v, slots[next++]);
+        }
+        for (int v : forward) {
+            place(v, slots[next++]);
+        }
+    }
+
+    private void sortByPosition(int[] vertices) {
+        long[] keys = new long[vertices.length];
+        for (int i = 0; i < vertices.length; i++) {
+            keys[i] = (long) position[vertices[i]] << 32 | vertices[i];
+        }
+        Arrays.sort(keys);
+        for (int i = 0; i < vertices.length; i++) {
+            vertices[i] = (int) keys[i];
+        }
+    }
+
+    private void place(int vertex, int slot) {
+        position[vertex] = slot;
+        vertexAt[slot] = vertex;
+    }
+
+    private int nextStamp() {
+        if (stamp == Integer.MAX_VALUE) {
+            Arrays.fill(mark, 0);
+            stamp = 0;
+        }
+        return ++stamp;
+    }
+
+    private static void append(int[][] adjacency, int[] count, int vertex, int value) {
+        int size = count[vertex];
+        if (size == adjacency[vertex].length) {
+            adjacency[vertex] = Arrays.copyOf(adjacency[vertex], Math.max(4, size * 2));
+        }
+        adjacency[vertex][size] = value;
+        count[vertex] = size + 1;
+    }
+
+    private void validateVertex(int vertex) {
+        if (vertex < 0 || vertex >= numVertices) {
+            throw new IllegalArgumentException(
+                    String.format("Vertex %d is out of range [0, %d)", vertex, numVertices));
+        }
+    }
+}
@@ -1,79 +1,97 @@
 package com.smartcity.graph.topo;
 
-import com.smartcity.common.Graph;
+import com.smartcity.common.AdjacencyGraph;
+import com.smartcity.common.DerivedCache;
+import com.smartcity.common.EdgeCursor;
+import com.smartcity.common.IntListView;
 import com.smartcity.common.Metrics;
 import java.util.*;
 
-public class KahnTopologicalSort implements TopologicalSort {
+public class KahnTopologicalSort implements PrimitiveTopologicalSort {
 
+    public static final DerivedCache.Key<int[]> TOPOLOGICAL_ORDER =
+            new DerivedCache.Key<>("topological_order");
+
+    /**
+     * Returns a topological order of {@code graph}, or {@code null} if it has
+     * a cycle, reusing the cached answer while the graph is unchanged. The
+     * array is shared with the cache and must not be modified.
+     */
+    public static int[] cachedOrderArray(AdjacencyGraph graph, Metrics metrics) {
+        KahnTopologicalSort kahnSort = new KahnTopologicalSort();
+        return graph.getDerivedCache().computeIfAbsent(TOPOLOGICAL_ORDER,
+                () -> kahnSort.sortToArray(graph, metrics));
+    }
+
+    /**
+     * Read-only view of {@link #cachedOrderArray}, or {@code null} if the
+     * graph has a cycle.
+     */
+    public static List<Integer> cachedOrder(AdjacencyGraph graph, Metrics metrics) {
+        int[] order = cachedOrderArray(graph, metrics);
+        return order != null ? new IntListView(order) : null;
+    }
+
+    /**
+     * Kahn's algorithm over primitive arrays. Every vertex is enqueued exactly
+     * once, so the output array doubles as the FIFO queue: vertices are
+     * appended at {@code tail} and consumed at {@code head}. The only
+     * allocations are the output and one in-degree array.
+     */
     @Override
-    public List<Integer> topologicalSort(Graph graph, Metrics metrics) {
+    public int[] sortToArray(AdjacencyGraph graph, Metrics metrics) {
         if (!graph.isDirected()) {
             throw new IllegalArgumentException("Topological sort requires a directed graph");
         }
 
         metrics.startTiming("kahn_topological_sort");
+        metrics.incrementCounter("kahn_runs");
 
         int n = graph.getNumVertices();
-        List<Integer> result = new ArrayList<>();
+        int[] order = new int[n];
 
-        int[] inDegree = calculateInDegrees(graph, metrics);
+        int[] inDegree = graph.copyInDegrees();
+        // One per edge contributing to an in-degree, however the array was obtained.
+        metrics.incrementCounter("indegree_calculations", graph.getNumEdges());
+
+        int edgeRemovals = 0;
+        int head = 0;
+        int tail = 0;
 
-        Queue<Integer> queue = new LinkedList<>();
         for (int i = 0; i < n; i++) {
             if (inDegree[i] == 0) {
-                queue.offer(i);
-                metrics.incrementCounter("queue_pushes");
+                order[tail++] = i;
             }
         }
 
-        while (!queue.isEmpty()) {
-            int u = queue.poll();
-            result.add(u);
-            metrics.incrementCounter("queue_pops");
-            metrics.incrementCounter("vertices_processed");
+        EdgeCursor cursor = graph.edgeCursor();
+        while (head < tail) {
+            int u = order[head++];
 
-            for (Graph.Edge edge : graph.getEdges(u)) {
-                int v = edge.to;
-                inDegree[v]--;
-                metrics.incrementCounter("edge_removals");
+            cursor.reset(u);
+            while (cursor.next()) {
+                int v = cursor.target();
+                edgeRemovals++;
 
-                if (inDegree[v] == 0) {
-                    queue.offer(v);
-                    metrics.incrementCounter("queue_pushes");
+                if (--inDegree[v] == 0) {
+                    order[tail++] = v;
                 }
             }
         }
 
+        metrics.incrementCounter("queue_pushes", tail);
+        metrics.incrementCounter("queue_pops", head);
+        metrics.incrementCounter("vertices_processed", head);
+        metrics.incrementCounter("edge_removals", edgeRemovals);
+
         metrics.stopTiming("kahn_topological_sort");
 
-        if (result.size() != n) {
+        if (head != n) {
             metrics.incrementCounter("cycle_detected");
             return null;
         }
 
-        return result;
-    }
-
-    @Override
-    public boolean isDAG(Graph graph) {
-        Metrics tempMetrics = new com.smartcity.common.MetricsImpl();
-        List<Integer> topoOrder = topologicalSort(graph, tempMetrics);
-        return topoOrder != null;
-    }
-
-    private int[] calculateInDegrees(Graph graph, Metrics metrics) {
-        int n = graph.getNumVertices();
-        int[] inDegree = new int[n];
-
-        for (int u = 0; u < n; u++) {
-            for (Graph.Edge edge : graph.getEdges(u)) {
-                inDegree[edge.to]++;
-                metrics.incrementCounter("indegree_calculations");
-            }
-        }
-
-        return inDegree;
+        return order;
     }
 
     public String getMetricsSummary(Metrics metrics) {
@@ -0,0 +1,262 @@
+package com.smartcity.graph.topo;
+
+import com.smartcity.common.AdjacencyGraph;
+import com.smartcity.common.EdgeCursor;
+import com.smartcity.common.Metrics;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Level-synchronous Kahn's algorithm on a {@link ForkJoinPool}. In-degrees
+ * come from {@link AdjacencyGraph#copyInDegrees()}, an O(V) copy for
+ * representations that track them, so counting costs no atomic updates. Each
+ * level's frontier is split into chunks; an edge into a vertex with a count of
+ * one is its last and is taken with a plain read, and only the others
+ * decrement atomically. A vertex whose in-degree reaches zero is collected in
+ * the chunk's local buffer, and full buffers are flushed into the shared
+ * order array through a single atomic reservation.
+ *
+ * Levels narrower than {@link #PARALLEL_FRONTIER} are expanded inline, and
+ * graphs below the sequential threshold, or pools with a single worker, run a
+ * plain sequential pass that records the same levels. The set of vertices in
+ * each level is deterministic; their order within a level is not when the
+ * level is expanded in parallel.
+ *
+ * The default threshold comes from {@link TopologicalSortBenchmark}. Below
+ * about 250k vertices the fork/join set-up costs several times a sequential
+ * Kahn pass. Above it the forced parallel path runs at 1.1-2x Kahn on a
+ * single core, where it can only show overhead. Any multi-core speedup is
+ * unverified; re-run the benchmark before relying on it.
+ */
+public class ParallelTopologicalSort implements PrimitiveTopologicalSort {
+
+    public static final int DEFAULT_SEQUENTIAL_THRESHOLD = 250_000;
+    private static final int PARALLEL_FRONTIER = 2048;
+    private static final int FRONTIER_CHUNK = 1024;
+    private static final int BUFFER_SIZE = 256;
+    private static final VarHandle IN_DEGREE = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private final ForkJoinPool pool;
+    private int sequentialThreshold = DEFAULT_SEQUENTIAL_THRESHOLD;
+
+    public ParallelTopologicalSort() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ParallelTopologicalSort(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public ParallelTopologicalSort setSequentialThreshold(int sequentialThreshold) {
+        this.sequentialThreshold = sequentialThreshold;
+        return this;
+    }
+
+    @Override
+    public int[] sortToArray(AdjacencyGraph graph, Metrics metrics) {
+        TopologicalLevels levels = computeLevels(graph, metrics);
+        return levels != null ? levels.getOrder() : null;
+    }
+
+    /**
+     * Returns the wavefronts of {@code graph}, or {@code null} if it has a cycle.
+     */
+    public TopologicalLevels computeLevels(AdjacencyGraph graph, Metrics metrics) {
+        if (!graph.isDirected()) {
+            throw new IllegalArgumentException("Topological sort requires a directed graph");
+        }
+
+        metrics.startTiming("parallel_topological_sort");
+
+        int n = graph.getNumVertices();
+        boolean parallel = n >= sequentialThreshold && pool.getParallelism() > 1;
+        Run run = parallel ? new ParallelRun(graph) : new SequentialRun(graph);
+        TopologicalLevels levels = run.execute();
+
+        metrics.incrementCounter("indegree_calculations", graph.getNumEdges());
+        metrics.incrementCounter("vertices_processed", run.processed);
+        metrics.incrementCounter("edge_removals", run.edgeRemovals);
+        metrics.incrementCounter("topo_levels", run.numLevels);
+        metrics.incrementCounter("parallel_levels", run.parallelLevels);
+
+        metrics.stopTiming("parallel_topological_sort");
+
+        if (levels == null) {
+            metrics.incrementCounter("cycle_detected");
+        }
+        return levels;
+    }
+
+    private abstract static class Run {
+        final AdjacencyGraph graph;
+        final int[] order;
+        int[] levelStart = new int[16];
+        int numLevels;
+        int processed;
+        int edgeRemovals;
+        int parallelLevels;
+
+        Run(AdjacencyGraph graph) {
+            this.graph = graph;
+            this.order = new int[graph.getNumVertices()];
+        }
+
+        abstract TopologicalLevels execute();
+
+        void markLevel(int end) {
+            if (numLevels + 2 > levelStart.length) {
+                levelStart = Arrays.copyOf(levelStart, levelStart.length * 2);
+            }
+            levelStart[++numLevels] = end;
+        }
+
+        TopologicalLevels result() {
+            return processed == order.length ? new TopologicalLevels(order, levelStart, numLevels) : null;
+        }
+    }
+
+    private static final class SequentialRun extends Run {
+
+        SequentialRun(AdjacencyGraph graph) {
+            super(graph);
+        }
+
+        @Override
+        TopologicalLevels execute() {
+            int n = order.length;
+            int[] inDegree = graph.copyInDegrees();
+            int tail = 0;
+            for (int v = 0; v < n; v++) {
+                if (inDegree[v] == 0) {
+                    order[tail++] = v;
+                }
+            }
+
+            EdgeCursor cursor = graph.edgeCursor();
+            int head = 0;
+            while (head < tail) {
+                int levelEnd = tail;
+                for (; head < levelEnd; head++) {
+                    cursor.reset(order[head]);
+                    while (cursor.next()) {
+                        edgeRemovals++;
+                        int v = cursor.target();
+                        if (--inDegree[v] == 0) {
+                            order[tail++] = v;
+                        }
+                    }
+                }
+                markLevel(levelEnd);
+            }
+            processed = head;
+            return result();
+        }
+    }
+
+    private final class ParallelRun extends Run {
+        private final int[] inDegree;
+        private final AtomicInteger tail = new AtomicInteger();
+        private final AtomicInteger removals = new AtomicInteger();
+
+        ParallelRun(AdjacencyGraph graph) {
+            super(graph);
+            this.inDegree = graph.copyInDegrees();
+        }
+
+        @Override
+        TopologicalLevels execute() {
+            int n = order.length;
+            pool.invoke(new Expand(0, n, true));
+
+            int head = 0;
+            while (head < tail.get()) {
+                int levelEnd = tail.get();
+                if (levelEnd - head >= PARALLEL_FRONTIER) {
+                    pool.invoke(new Expand(head, levelEnd, false));
+                    parallelLevels++;
+                } else {
+                    new Expand(head, levelEnd, false).compute();
+                }
+                markLevel(levelEnd);
+                head = levelEnd;
+            }
+            processed = head;
+            edgeRemovals = removals.get();
+            return result();
+        }
+
+        /**
+         * With {@code seed} set, scans vertex ids [from, to) for zero
+         * in-degree; otherwise expands order[from, to).
+         */
+        private final class Expand extends RecursiveAction {
+            private static final long serialVersionUID = 1L;
+
+            private final int from;
+            private final int to;
+            private final boolean seed;
+
+            Expand(int from, int to, boolean seed) {
+                this.from = from;
+                this.to = to;
+                this.seed = seed;
+            }
+
+            @Override
+            protected void compute() {
+                if (to - from > FRONTIER_CHUNK && getPool() != null) {
+                    int mid = (from + to) >>> 1;
+                    invokeAll(new Expand(from, mid, seed), new Expand(mid, to, seed));
+                    return;
+                }
+
+                int[] buffer = new int[Math.min(BUFFER_SIZE, to - from)];
+                int size = 0;
+                if (seed) {
+                    for (int v = from; v < to; v++) {
+                        if (inDegree[v] == 0) {
+                            if (size == buffer.length) {
+                                size = flush(buffer, size);
+                            }
+                            buffer[size++] = v;
+                        }
+                    }
+                    flush(buffer, size);
+                    return;
+                }
+
+                EdgeCursor cursor = graph.edgeCursor();
+                int edges = 0;
+                for (int i = from; i < to; i++) {
+                    cursor.reset(order[i]);
+                    while (cursor.next()) {
+                        edges++;
+                        int v = cursor.target();
+                        // Counts only fall, so a stale plain read is never too
+                        // low. A count of 1 means this is v's last unprocessed
+                        // in-edge and no other task can touch v: skip the CAS.
+                        if (inDegree[v] == 1 || (int) IN_DEGREE.getAndAdd(inDegree, v, -1) == 1) {
+                            if (size == buffer.length) {
+                                size = flush(buffer, size);
+                            }
+                            buffer[size++] = v;
+                        }
+                    }
+                }
+                flush(buffer, size);
+                removals.addAndGet(edges);
+            }
+
+            private int flush(int[] buffer, int size) {
+                if (size > 0) {
+                    System.arraycopy(buffer, 0, order, tail.getAndAdd(size), size);
+                }
+                return 0;
+            }
+        }
+    }
+}
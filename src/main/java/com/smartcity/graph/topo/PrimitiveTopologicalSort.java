@@ -0,0 +1,25 @@
+package com.smartcity.graph.topo;
+
+import com.smartcity.common.AdjacencyGraph;
+import com.smartcity.common.IntListView;
+import com.smartcity.common.Metrics;
+import java.util.List;
+
+/**
+ * A {@link TopologicalSort} that produces its order as an {@code int[]}, for
+ * consumers that index vertices directly and should not box every element.
+ */
+public interface PrimitiveTopologicalSort extends TopologicalSort {
+
+    /**
+     * Returns the vertices of {@code graph} in topological order, or
+     * {@code null} if it has a cycle.
+     */
+    int[] sortToArray(AdjacencyGraph graph, Metrics metrics);
+
+    @Override
+    default List<Integer> topologicalSort(AdjacencyGraph graph, Metrics metrics) {
+        int[] order = sortToArray(graph, metrics);
+        return order != null ? new IntListView(order) : null;
+    }
+}
@@ -1,21 +1,27 @@
 package com.smartcity.graph.topo;
 
+import com.smartcity.common.AdjacencyGraph;
+import com.smartcity.common.CSRGraph;
 import com.smartcity.common.Graph;
+import com.smartcity.common.IntListView;
 import com.smartcity.common.Metrics;
+import com.smartcity.common.WeightAggregation;
 import com.smartcity.graph.scc.*;
 import java.util.*;
 
 public class SCCTopologicalOrder {
 
-    private final Graph originalGraph;
+    private final AdjacencyGraph originalGraph;
     private final Metrics metrics;
 
     private SCCResult sccResult;
+    private long sccVersion;
+    private CSRGraph condensationSnapshot;
     private Graph condensationDAG;
     private List<Integer> componentOrder;
     private List<Integer> originalVertexOrder;
 
-    public SCCTopologicalOrder(Graph graph, Metrics metrics) {
+    public SCCTopologicalOrder(AdjacencyGraph graph, Metrics metrics) {
         if (!graph.isDirected()) {
             throw new IllegalArgumentException("Graph must be directed");
         }
@@ -23,49 +29,102 @@ public class SCCTopologicalOrder {
         this.metrics = metrics;
     }
 
+    /**
+     * Computes the component and vertex orders in one SCC pass. TarjanSCC
+     * numbers components in topological order of the condensation, so the
+     * component order is the identity and the vertex order is the members
+     * grouped by component; no condensation or second sort is needed.
+     */
     public boolean computeOrder() {
-        metrics.startTiming("scc_topo_total");
+        return computeOrder(false);
+    }
 
-        TarjanSCC tarjan = new TarjanSCC(originalGraph, metrics);
-        sccResult = tarjan.findSCC();
+    /**
+     * As {@link #computeOrder()}, also building the condensation DAG inside
+     * the timed section when {@code withCondensation} is set. Otherwise the
+     * condensation is built on first request, from the same SCC result, and
+     * only while the graph is unchanged.
+     */
+    public boolean computeOrder(boolean withCondensation) {
+        metrics.startTiming("scc_topo_total");
 
-        SCCCondensation condensation = new SCCCondensation(originalGraph, sccResult);
-        condensationDAG = condensation.buildCondensationDAG();
+        sccVersion = originalGraph.getDerivedCache().currentVersion();
+        sccResult = TarjanSCC.cachedSCC(originalGraph, metrics);
+        condensationSnapshot = null;
+        condensationDAG = null;
 
-        KahnTopologicalSort kahnSort = new KahnTopologicalSort();
-        componentOrder = kahnSort.topologicalSort(condensationDAG, metrics);
+        int numComponents = sccResult.getNumComponents();
+        int[] components = new int[numComponents];
+        for (int c = 0; c < numComponents; c++) {
+            components[c] = c;
+        }
+        componentOrder = new IntListView(components);
 
-        if (componentOrder == null) {
-            metrics.stopTiming("scc_topo_total");
-            return false;
+        int[] vertexOrder = new int[originalGraph.getNumVertices()];
+        for (int i = 0; i < vertexOrder.length; i++) {
+            vertexOrder[i] = sccResult.getMember(i);
         }
+        originalVertexOrder = new IntListView(vertexOrder);
 
-        originalVertexOrder = deriveOriginalVertexOrder();
+        if (withCondensation) {
+            getCondensationSnapshot();
+        }
 
         metrics.stopTiming("scc_topo_total");
         return true;
     }
 
-    private List<Integer> deriveOriginalVertexOrder() {
-        List<Integer> vertexOrder = new ArrayList<>();
-
-        for (int componentId : componentOrder) {
-
-            List<Integer> component = sccResult.getComponents().get(componentId);
-            vertexOrder.addAll(component);
-        }
-
-        return vertexOrder;
-    }
-
     public SCCResult getSCCResult() {
         return sccResult;
     }
 
+    /**
+     * Mutable copy of the condensation DAG, or {@code null} before
+     * {@link #computeOrder()}. Use {@link #getCondensationSnapshot()} to avoid
+     * the copy.
+     *
+     * @throws IllegalStateException as {@link #getCondensationSnapshot()}
+     */
     public Graph getCondensationDAG() {
+        if (condensationDAG == null && sccResult != null) {
+            CSRGraph snapshot = getCondensationSnapshot();
+            condensationDAG = new Graph(snapshot.getNumVertices(), true);
+            for (int c = 0; c < snapshot.getNumVertices(); c++) {
+                for (int e = snapshot.getEdgeStart(c); e < snapshot.getEdgeEnd(c); e++) {
+                    condensationDAG.addEdge(c, snapshot.getTarget(e), snapshot.getWeight(e));
+                }
+            }
+        }
         return condensationDAG;
     }
 
+    /**
+     * Immutable condensation over {@link #getSCCResult()}, shared through the
+     * graph's derived cache, or {@code null} before {@link #computeOrder()}.
+     *
+     * @throws IllegalStateException if it was not built during
+     *         {@code computeOrder} and the graph has changed since
+     */
+    public CSRGraph getCondensationSnapshot() {
+        if (condensationSnapshot == null && sccResult != null) {
+            if (isStale()) {
+                throw new IllegalStateException("Graph changed since computeOrder(); call it again");
+            }
+            SCCResult snapshot = sccResult;
+            condensationSnapshot = originalGraph.getDerivedCache().computeIfAbsent(SCCCondensation.CONDENSATION_DAG,
+                    () -> new SCCCondensation(originalGraph, snapshot).buildCondensation(WeightAggregation.FIRST));
+        }
+        return condensationSnapshot;
+    }
+
+    /**
+     * True if the graph has changed since {@link #computeOrder()}, so the
+     * results describe an earlier state of it.
+     */
+    public boolean isStale() {
+        return sccResult != null && originalGraph.getDerivedCache().currentVersion() != sccVersion;
+    }
+
     public List<Integer> getComponentOrder() {
         return componentOrder;
     }
@@ -74,20 +133,34 @@ public class SCCTopologicalOrder {
         return originalVertexOrder;
     }
 
+    /**
+     * Describes the last {@link #computeOrder()}. Never throws: if the graph
+     * has changed since, the summary says so, and a condensation that was not
+     * built in time is reported as unavailable rather than built.
+     */
     public String getSummary() {
-        if (sccResult == null || condensationDAG == null || componentOrder == null) {
+        if (sccResult == null || componentOrder == null) {
             return "Computation not performed yet. Call computeOrder() first.";
         }
 
         StringBuilder sb = new StringBuilder();
         sb.append("=== SCC + Topological Order Summary ===\n");
+        boolean stale = isStale();
+        if (stale) {
+            sb.append("Stale: the graph changed after computeOrder(); call it again for current results\n");
+        }
 
         sb.append(String.format("Original graph: %d vertices, %d edges\n",
                 originalGraph.getNumVertices(), originalGraph.getNumEdges()));
 
         sb.append(String.format("SCCs found: %d\n", sccResult.getNumComponents()));
-        sb.append(String.format("Condensation DAG: %d vertices, %d edges\n",
-                condensationDAG.getNumVertices(), condensationDAG.getNumEdges()));
+        CSRGraph dag = stale ? condensationSnapshot : getCondensationSnapshot();
+        if (dag != null) {
+            sb.append(String.format("Condensation DAG: %d vertices, %d edges\n",
+                    dag.getNumVertices(), dag.getNumEdges()));
+        } else {
+            sb.append("Condensation DAG: not built before the graph changed\n");
+        }
 
         sb.append(String.format("Component topological order: %s\n", componentOrder));
         sb.append(String.format("Original vertex order: %s\n", originalVertexOrder));
@@ -0,0 +1,78 @@
+package com.smartcity.graph.topo;
+
+import com.smartcity.common.IntListView;
+import java.util.List;
+
+/**
+ * A topological order split into wavefronts. Level 0 holds the vertices with
+ * no in-edges, and level i + 1 the vertices whose last predecessor is in level
+ * i, so every vertex of a level can run as soon as the previous levels are
+ * done. Levels are stored back to back in one order array.
+ */
+public class TopologicalLevels {
+
+    private final int[] order;
+    private final int[] levelStart;
+    private final int numLevels;
+
+    /**
+     * Adopts {@code order} and the first {@code numLevels + 1} entries of
+     * {@code levelStart}; level i is {@code order[levelStart[i], levelStart[i + 1])}.
+     */
+    public TopologicalLevels(int[] order, int[] levelStart, int numLevels) {
+        this.order = order;
+        this.levelStart = levelStart;
+        this.numLevels = numLevels;
+    }
+
+    /**
+     * The flat topological order. Shared; do not modify.
+     */
+    public int[] getOrder() {
+        return order;
+    }
+
+    public int getNumLevels() {
+        return numLevels;
+    }
+
+    public int getLevelStart(int level) {
+        return levelStart[level];
+    }
+
+    public int getLevelEnd(int level) {
+        return levelStart[level + 1];
+    }
+
+    public int getLevelSize(int level) {
+        return levelStart[level + 1] - levelStart[level];
+    }
+
+    public List<Integer> getLevel(int level) {
+        if (level < 0 || level >= numLevels) {
+            throw new IllegalArgumentException("Invalid level: " + level);
+        }
+        return new IntListView(order, levelStart[level], levelStart[level + 1]);
+    }
+
+    public int getMaxWidth() {
+        int width = 0;
+        for (int level = 0; level < numLevels; level++) {
+            width = Math.max(width, getLevelSize(level));
+        }
+        return width;
+    }
+
+    /**
+     * Returns the level of every vertex.
+     */
+    public int[] getVertexLevels() {
+        int[] levels = new int[order.length];
+        for (int level = 0; level < numLevels; level++) {
+            for (int i = levelStart[level]; i < levelStart[level + 1]; i++) {
+                levels[order[i]] = level;
+            }
+        }
+        return levels;
+    }
+}
@@ -1,12 +1,17 @@
 package com.smartcity.graph.topo;
 
-import com.smartcity.common.Graph;
+import com.smartcity.common.AdjacencyGraph;
 import com.smartcity.common.Metrics;
 import java.util.List;
 
 public interface TopologicalSort {
 
-    List<Integer> topologicalSort(Graph graph, Metrics metrics);
+    List<Integer> topologicalSort(AdjacencyGraph graph, Metrics metrics);
 
-    boolean isDAG(Graph graph);
+    /**
+     * Early-exit cycle check; see {@link CycleDetector}.
+     */
+    default boolean isDAG(AdjacencyGraph graph) {
+        return CycleDetector.isDAG(graph);
+    }
 }
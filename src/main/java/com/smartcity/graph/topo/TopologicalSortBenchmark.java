@@ -0,0 +1,102 @@
+package com.smartcity.graph.topo;
+
+import com.smartcity.common.*;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Benchmark harness comparing {@link KahnTopologicalSort} with
+ * {@link ParallelTopologicalSort} on the large_01 DAG replicated into
+ * disjoint copies, a wide DAG whose levels grow with the number of copies.
+ *
+ * <pre>
+ *   TopologicalSortBenchmark [graph.json] [maxCopies] [threads] [rounds]
+ * </pre>
+ *
+ * Sizes grow by 4x up to {@code maxCopies}. For each size every variant gets
+ * {@code rounds} warm-up runs and then {@code rounds} timed runs, and the
+ * median is reported. The derived cache is cleared before each run so every
+ * variant counts its own in-degrees. The parallel variant is forced onto a
+ * pool of {@code threads} workers even on a single-core machine, where it
+ * measures overhead rather than speedup.
+ */
+public class TopologicalSortBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        String path = args.length > 0 ? args[0] : "data/large/large_01_perf_dag.json";
+        int maxCopies = args.length > 1 ? Integer.parseInt(args[1]) : 80_000;
+        int threads = args.length > 2 ? Integer.parseInt(args[2])
+                : Math.max(2, Runtime.getRuntime().availableProcessors());
+        int rounds = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+
+        Graph base = GraphLoader.loadGraph(path);
+        System.out.println("=== Topological Sort Benchmark ===");
+        System.out.println(String.format("Base graph: %s, %d vertices, %d edges", path,
+                base.getNumVertices(), base.getNumEdges()));
+        System.out.println(String.format("Available processors: %d, pool threads: %d, rounds: %d",
+                Runtime.getRuntime().availableProcessors(), threads, rounds));
+        System.out.println();
+        System.out.println(String.format("%10s %10s %7s %12s %12s %12s %8s",
+                "vertices", "edges", "levels", "kahn ms", "seq ms", "parallel ms", "par/kahn"));
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            ParallelTopologicalSort sequential = new ParallelTopologicalSort(pool)
+                    .setSequentialThreshold(Integer.MAX_VALUE);
+            ParallelTopologicalSort parallel = new ParallelTopologicalSort(pool).setSequentialThreshold(0);
+            KahnTopologicalSort kahn = new KahnTopologicalSort();
+
+            for (int copies = 40; ; copies = Math.min(copies * 4, maxCopies)) {
+                CSRGraph graph = replicate(base, copies);
+
+                double kahnMs = median(graph, rounds, () -> kahn.sortToArray(graph, new MetricsImpl()));
+                double sequentialMs = median(graph, rounds, () -> sequential.sortToArray(graph, new MetricsImpl()));
+                double parallelMs = median(graph, rounds, () -> parallel.sortToArray(graph, new MetricsImpl()));
+                int levels = parallel.computeLevels(graph, new MetricsImpl()).getNumLevels();
+
+                System.out.println(String.format("%10d %10d %7d %12.3f %12.3f %12.3f %8.2f",
+                        graph.getNumVertices(), graph.getNumEdges(), levels,
+                        kahnMs, sequentialMs, parallelMs, parallelMs / kahnMs));
+
+                if (copies >= maxCopies) {
+                    break;
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static CSRGraph replicate(Graph base, int copies) {
+        int size = base.getNumVertices();
+        GraphBuilder builder = new GraphBuilder(size * copies, true, base.getNumEdges() * copies);
+        EdgeCursor cursor = base.edgeCursor();
+        for (int c = 0; c < copies; c++) {
+            int offset = c * size;
+            for (int u = 0; u < size; u++) {
+                cursor.reset(u);
+                while (cursor.next()) {
+                    builder.addEdge(offset + u, offset + cursor.target(), cursor.weight());
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    private static double median(CSRGraph graph, int rounds, Runnable sort) {
+        for (int i = 0; i < rounds; i++) {
+            graph.getDerivedCache().invalidate();
+            sort.run();
+        }
+        long[] times = new long[rounds];
+        for (int i = 0; i < rounds; i++) {
+            graph.getDerivedCache().invalidate();
+            long start = System.nanoTime();
+            sort.run();
+            times[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(times);
+        return times[rounds / 2] / 1_000_000.0;
+    }
+}
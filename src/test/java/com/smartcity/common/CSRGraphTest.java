@@ -0,0 +1,139 @@
+package com.smartcity.common;
+
+import com.smartcity.graph.dagsp.*;
+import com.smartcity.graph.scc.*;
+import com.smartcity.graph.topo.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CSRGraphTest {
+
+    private Metrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        metrics = new MetricsImpl();
+    }
+
+    @Test
+    void testSnapshotMatchesGraph() {
+        Graph graph = new Graph(4, true);
+        graph.addEdge(0, 1, 2);
+        graph.addEdge(0, 2, 3);
+        graph.addEdge(2, 3, 4);
+        graph.addEdge(3, 0, 5);
+
+        CSRGraph csr = CSRGraph.fromGraph(graph);
+
+        assertEquals(graph.getNumVertices(), csr.getNumVertices());
+        assertEquals(graph.getNumEdges(), csr.getNumEdges());
+        assertTrue(csr.isDirected());
+
+        for (int u = 0; u < graph.getNumVertices(); u++) {
+            assertEquals(graph.getOutDegree(u), csr.getOutDegree(u));
+            for (int i = 0; i < graph.getOutDegree(u); i++) {
+                assertEquals(graph.getEdgeTarget(u, i), csr.getEdgeTarget(u, i));
+                assertEquals(graph.getEdgeWeight(u, i), csr.getEdgeWeight(u, i));
+            }
+        }
+    }
+
+    @Test
+    void testFromGraphData() {
+        GraphData data = new GraphData();
+        data.numVertices = 3;
+        data.directed = false;
+        data.edges = new ArrayList<>();
+        data.edges.add(new GraphData.EdgeData(0, 1, 1.5));
+        data.edges.add(new GraphData.EdgeData(1, 2, 2.5));
+
+        CSRGraph csr = CSRGraph.fromGraphData(data);
+
+        assertEquals(2, csr.getNumEdges());
+        assertEquals(1, csr.getOutDegree(0));
+        assertEquals(2, csr.getOutDegree(1));
+        assertEquals(1, csr.getOutDegree(2));
+        assertEquals(1, csr.getEdgeTarget(2, 0));
+    }
+
+    @Test
+    void testFromGraphDataRejectsInvalidVertex() {
+        GraphData data = new GraphData();
+        data.numVertices = 2;
+        data.edges = new ArrayList<>();
+        data.edges.add(new GraphData.EdgeData(0, 5, 1.0));
+
+        assertThrows(IllegalArgumentException.class, () -> CSRGraph.fromGraphData(data));
+    }
+
+    @Test
+    void testReverseIndexAndTranspose() {
+        Graph graph = new Graph(4, true);
+        graph.addEdge(2, 0, 1);
+        graph.addEdge(1, 0, 2);
+        graph.addEdge(3, 0, 3);
+        graph.addEdge(0, 3, 4);
+
+        CSRGraph csr = CSRGraph.fromGraph(graph);
+        assertFalse(csr.hasReverseIndex());
+        assertThrows(IllegalStateException.class, () -> csr.getInEdgeSource(0, 0));
+        assertEquals(3, csr.getInDegree(0));
+        assertArrayEquals(graph.getInDegrees(), csr.getInDegrees());
+
+        CSRGraph indexed = csr.withReverseIndex();
+        assertTrue(indexed.hasReverseIndex());
+        assertEquals(3, indexed.getInDegree(0));
+        assertEquals(1, indexed.getInEdgeSource(0, 0));
+        assertEquals(2.0, indexed.getInEdgeWeight(0, 0));
+        assertEquals(3, indexed.getInEdgeSource(0, 2));
+        assertEquals(0, indexed.getInEdgeSource(3, 0));
+
+        CSRGraph transposed = indexed.transpose();
+        assertEquals(3, transposed.getOutDegree(0));
+        assertEquals(1, transposed.getOutDegree(3));
+        assertEquals(0, transposed.getEdgeTarget(3, 0));
+        assertEquals(1, transposed.getInDegree(0));
+        assertEquals(graph.getNumEdges(), transposed.getNumEdges());
+    }
+
+    @Test
+    void testAlgorithmsOnSnapshot() {
+        Graph graph = new Graph(6, true);
+        graph.addEdge(0, 1, 2);
+        graph.addEdge(1, 2, 3);
+        graph.addEdge(2, 0, 1);
+        graph.addEdge(2, 3, 5);
+        graph.addEdge(3, 4, 4);
+        graph.addEdge(4, 5, 2);
+
+        CSRGraph csr = CSRGraph.fromGraph(graph);
+
+        SCCResult expected = new TarjanSCC(graph, metrics).findSCC();
+        SCCResult actual = new TarjanSCC(csr, metrics).findSCC();
+        assertEquals(expected.getNumComponents(), actual.getNumComponents());
+        for (int v = 0; v < graph.getNumVertices(); v++) {
+            assertEquals(expected.getComponentId(v), actual.getComponentId(v));
+        }
+
+        Graph dag = new SCCCondensation(csr, actual).buildCondensationDAG();
+        assertEquals(4, dag.getNumVertices());
+        assertEquals(3, dag.getNumEdges());
+
+        SCCTopologicalOrder sccTopo = new SCCTopologicalOrder(csr, metrics);
+        assertTrue(sccTopo.computeOrder());
+        assertEquals(6, sccTopo.getOriginalVertexOrder().size());
+
+        CSRGraph dagSnapshot = CSRGraph.fromGraph(dag);
+        List<Integer> order = new KahnTopologicalSort().topologicalSort(dagSnapshot, metrics);
+        assertNotNull(order);
+        assertEquals(4, order.size());
+
+        PathResult shortest = new DAGShortestPath(dagSnapshot, metrics).findShortestPaths(order.get(0));
+        PathResult longest = new DAGLongestPath(dagSnapshot, metrics).findLongestPaths(order.get(0));
+        assertEquals(11.0, shortest.getDistance(order.get(3)));
+        assertEquals(11.0, longest.getDistance(order.get(3)));
+    }
+}
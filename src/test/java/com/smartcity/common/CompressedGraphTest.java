@@ -0,0 +1,184 @@
+package com.smartcity.common;
+
+import com.smartcity.graph.scc.*;
+import com.smartcity.graph.topo.*;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.List;
+import java.util.Random;
+
+public class CompressedGraphTest {
+
+    @Test
+    void testRoundTripSortsNeighbours() {
+        Graph graph = new Graph(6, true);
+        graph.addEdge(3, 5, 2);
+        graph.addEdge(3, 0, 7);
+        graph.addEdge(3, 4, -1);
+        graph.addEdge(0, 1, 1000);
+
+        CompressedGraph compressed = CompressedGraph.encode(graph);
+
+        assertEquals(4, compressed.getNumEdges());
+        assertEquals(3, compressed.getOutDegree(3));
+        assertEquals(0, compressed.getOutDegree(5));
+        assertEquals(0, compressed.getEdgeTarget(3, 0));
+        assertEquals(7.0, compressed.getEdgeWeight(3, 0));
+        assertEquals(4, compressed.getEdgeTarget(3, 1));
+        assertEquals(-1.0, compressed.getEdgeWeight(3, 1));
+        assertEquals(5, compressed.getEdgeTarget(3, 2));
+        assertEquals(1000.0, compressed.getEdgeWeight(0, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> compressed.getEdgeTarget(3, 3));
+
+        EdgeCursor cursor = compressed.edgeCursor();
+        cursor.reset(3);
+        int previous = -1;
+        while (cursor.next()) {
+            assertTrue(cursor.target() > previous);
+            previous = cursor.target();
+        }
+
+        CSRGraph csr = CSRGraph.fromGraph(compressed);
+        for (int u = 0; u < compressed.getNumVertices(); u++) {
+            assertEquals(compressed.getOutDegree(u), csr.getOutDegree(u));
+            for (int i = 0; i < csr.getOutDegree(u); i++) {
+                assertEquals(compressed.getEdgeTarget(u, i), csr.getEdgeTarget(u, i));
+                assertEquals(compressed.getEdgeWeight(u, i), csr.getEdgeWeight(u, i));
+            }
+        }
+    }
+
+    @Test
+    void testQuantisedAndUniformWeights() {
+        Graph graph = new Graph(3, true);
+        graph.addEdge(0, 1, 0.1234);
+        graph.addEdge(1, 2, 2.5);
+
+        CompressedGraph quantised = CompressedGraph.encode(graph, 0.01);
+        assertEquals(0.12, quantised.getEdgeWeight(0, 0), 1e-9);
+        assertEquals(2.5, quantised.getEdgeWeight(1, 0), 1e-9);
+
+        Graph unweighted = new Graph(3, true);
+        unweighted.addEdge(0, 1);
+        unweighted.addEdge(0, 2);
+        CompressedGraph uniform = CompressedGraph.encode(unweighted);
+        assertEquals(1.0, uniform.getEdgeWeight(0, 1));
+
+        assertThrows(IllegalArgumentException.class, () -> CompressedGraph.encode(graph, 0));
+    }
+
+    @Test
+    void testUnquantisableWeightsRejected() {
+        for (double bad : new double[] {Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, 1e300}) {
+            Graph graph = new Graph(3, true);
+            graph.addEdge(0, 1, 1.5);
+            graph.addEdge(1, 2, bad);
+            assertThrows(IllegalArgumentException.class, () -> CompressedGraph.encode(graph), "weight " + bad);
+        }
+
+        Graph uniform = new Graph(2, true);
+        uniform.addEdge(0, 1, Double.POSITIVE_INFINITY);
+        assertEquals(Double.POSITIVE_INFINITY, CompressedGraph.encode(uniform).getEdgeWeight(0, 0));
+    }
+
+    @Test
+    void testLocalGraphCompressesWell() {
+        int n = 10000;
+        Random random = new Random(7);
+        Graph graph = new Graph(n, true);
+        for (int u = 0; u < n; u++) {
+            for (int k = 0; k < 4; k++) {
+                int v = Math.floorMod(u + random.nextInt(64) - 32, n);
+                graph.addEdge(u, v, 1 + random.nextInt(100));
+            }
+        }
+
+        CompressedGraph compressed = CompressedGraph.encode(graph);
+
+        assertTrue(compressed.getEncodedBytes() < 4L * graph.getNumEdges(),
+                "Expected under 4 bytes per edge, got " + compressed.getEncodedBytes());
+        assertArrayEquals(graph.getInDegrees(), compressed.getInDegrees());
+    }
+
+    @Test
+    void testAlgorithmsOnCompressedGraph() {
+        Graph graph = new Graph(6, true);
+        graph.addEdge(0, 1, 2);
+        graph.addEdge(1, 2, 3);
+        graph.addEdge(2, 0, 1);
+        graph.addEdge(2, 3, 5);
+        graph.addEdge(3, 4, 4);
+        graph.addEdge(4, 5, 2);
+
+        Metrics metrics = new MetricsImpl();
+        CompressedGraph compressed = CompressedGraph.encode(graph);
+
+        SCCResult result = new TarjanSCC(compressed, metrics).findSCC();
+        assertEquals(4, result.getNumComponents());
+        assertTrue(result.inSameComponent(0, 2));
+
+        SCCTopologicalOrder sccTopo = new SCCTopologicalOrder(compressed, metrics);
+        assertTrue(sccTopo.computeOrder());
+
+        CompressedGraph dag = CompressedGraph.encode(sccTopo.getCondensationDAG());
+        List<Integer> order = new KahnTopologicalSort().topologicalSort(dag, metrics);
+        assertNotNull(order);
+        assertEquals(4, order.size());
+    }
+
+    @Test
+    void testCursorResumesAfterInterleaving() {
+        Random random = new Random(5);
+        Graph graph = new Graph(40, true);
+        for (int i = 0; i < 300; i++) {
+            graph.addEdge(random.nextInt(40), random.nextInt(40), 1 + random.nextInt(9));
+        }
+        CSRGraph csr = CSRGraph.fromGraph(graph);
+        List<AdjacencyGraph> graphs = List.of(graph, csr, CompressedGraph.encode(csr));
+
+        for (AdjacencyGraph g : graphs) {
+            EdgeCursor expected = g.edgeCursor();
+            EdgeCursor cursor = g.edgeCursor();
+            for (int u = 0; u < 40; u++) {
+                expected.reset(u);
+                cursor.reset(u);
+                while (true) {
+                    long position = cursor.position();
+                    cursor.reset((u + 1) % 40);
+                    cursor.next();
+                    cursor.resume(u, position);
+
+                    boolean more = expected.next();
+                    assertEquals(more, cursor.next());
+                    if (!more) {
+                        break;
+                    }
+                    assertEquals(expected.target(), cursor.target());
+                    assertEquals(expected.weight(), cursor.weight());
+                }
+            }
+        }
+    }
+
+    @Test
+    void testSCCOnRandomCompressedGraphs() {
+        Random random = new Random(17);
+        for (int round = 0; round < 20; round++) {
+            int n = 1 + random.nextInt(300);
+            Graph graph = new Graph(n, true);
+            for (int i = 0; i < 2 * n; i++) {
+                graph.addEdge(random.nextInt(n), random.nextInt(n));
+            }
+            CompressedGraph compressed = CompressedGraph.encode(CSRGraph.fromGraph(graph));
+
+            SCCResult expected = new TarjanSCC(graph, new MetricsImpl()).findSCC();
+            SCCResult actual = new TarjanSCC(compressed, new MetricsImpl()).findSCC();
+            assertEquals(expected.getNumComponents(), actual.getNumComponents());
+            for (int u = 0; u < n; u++) {
+                for (int v = 0; v < n; v++) {
+                    assertEquals(expected.inSameComponent(u, v), actual.inSameComponent(u, v));
+                }
+            }
+        }
+    }
+}
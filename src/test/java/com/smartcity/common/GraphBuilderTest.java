@@ -0,0 +1,94 @@
+package com.smartcity.common;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GraphBuilderTest {
+
+    @Test
+    void testBatchBuildMatchesGraph() {
+        int[] from = { 2, 0, 1, 0, 2 };
+        int[] to = { 0, 1, 2, 2, 1 };
+        double[] weights = { 5, 1, 2, 3, 4 };
+
+        Graph expected = new Graph(3, true);
+        for (int i = 0; i < from.length; i++) {
+            expected.addEdge(from[i], to[i], weights[i]);
+        }
+
+        CSRGraph built = new GraphBuilder(3, true)
+                .addEdges(from, to, weights, 0, 3)
+                .addEdges(from, to, weights, 3, 2)
+                .build();
+
+        GraphLoaderTest.assertGraphEquals(expected, built);
+    }
+
+    @Test
+    void testSortNeighbors() {
+        CSRGraph graph = new GraphBuilder(4, true)
+                .addEdges(new int[] { 0, 0, 0, 1 }, new int[] { 3, 1, 2, 0 }, null)
+                .sortNeighbors(true)
+                .build();
+
+        assertEquals(1, graph.getEdgeTarget(0, 0));
+        assertEquals(2, graph.getEdgeTarget(0, 1));
+        assertEquals(3, graph.getEdgeTarget(0, 2));
+        assertEquals(1.0, graph.getEdgeWeight(0, 2));
+    }
+
+    @Test
+    void testMergeParallelEdges() {
+        int[] from = { 0, 0, 1, 0 };
+        int[] to = { 1, 1, 2, 1 };
+        double[] weights = { 4, 2, 7, 9 };
+
+        assertEquals(4.0, merged(from, to, weights, WeightAggregation.FIRST).getEdgeWeight(0, 0));
+        assertEquals(2.0, merged(from, to, weights, WeightAggregation.MIN).getEdgeWeight(0, 0));
+        assertEquals(9.0, merged(from, to, weights, WeightAggregation.MAX).getEdgeWeight(0, 0));
+
+        CSRGraph sum = merged(from, to, weights, WeightAggregation.SUM);
+        assertEquals(15.0, sum.getEdgeWeight(0, 0));
+        assertEquals(2, sum.getNumEdges());
+        assertEquals(1, sum.getOutDegree(0));
+        assertEquals(7.0, sum.getEdgeWeight(1, 0));
+
+        CSRGraph count = merged(from, to, weights, WeightAggregation.COUNT);
+        assertEquals(3.0, count.getEdgeWeight(0, 0));
+        assertEquals(1.0, count.getEdgeWeight(1, 0));
+    }
+
+    @Test
+    void testMergeUndirected() {
+        CSRGraph graph = new GraphBuilder(3, false)
+                .addEdge(0, 1, 2)
+                .addEdge(1, 0, 3)
+                .addEdge(2, 1, 1)
+                .mergeParallelEdges(WeightAggregation.SUM)
+                .build();
+
+        assertFalse(graph.isDirected());
+        assertEquals(2, graph.getNumEdges());
+        assertEquals(5.0, graph.getEdgeWeight(0, 0));
+        assertEquals(2, graph.getOutDegree(1));
+        assertEquals(0, graph.getEdgeTarget(1, 0));
+        assertEquals(2, graph.getEdgeTarget(1, 1));
+        assertEquals(5.0, graph.getEdgeWeight(1, 0));
+    }
+
+    @Test
+    void testInvalidInput() {
+        GraphBuilder builder = new GraphBuilder(2, true);
+
+        assertThrows(IllegalArgumentException.class, () -> builder.addEdge(0, 2, 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> builder.addEdges(new int[] { 0, -1 }, new int[] { 1, 1 }, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> builder.addEdges(new int[] { 0 }, new int[] { 1 }, null, 0, 2));
+        assertEquals(0, builder.getNumEdgesAdded());
+    }
+
+    private CSRGraph merged(int[] from, int[] to, double[] weights, WeightAggregation policy) {
+        return new GraphBuilder(3, true).addEdges(from, to, weights).mergeParallelEdges(policy).build();
+    }
+}
@@ -0,0 +1,237 @@
+package com.smartcity.common;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class GraphLoaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testBinaryRoundTrip() throws IOException {
+        Graph graph = new Graph(7, true);
+        graph.addEdge(0, 1, 2.5);
+        graph.addEdge(0, 2, 1.0);
+        graph.addEdge(2, 6, -3.0);
+        graph.addEdge(5, 0, 4.0);
+
+        String file = tempDir.resolve("graph.bin").toString();
+        GraphLoader.saveBinaryGraph(graph, file);
+        OffHeapGraph loaded = GraphLoader.loadBinaryGraph(file);
+
+        assertGraphEquals(graph, loaded);
+    }
+
+    @Test
+    void testBinaryRoundTripUndirected() throws IOException {
+        Graph graph = new Graph(3, false);
+        graph.addEdge(0, 1, 1.0);
+        graph.addEdge(1, 2, 2.0);
+
+        String file = tempDir.resolve("undirected.bin").toString();
+        GraphLoader.saveBinaryGraph(graph, file);
+        OffHeapGraph loaded = GraphLoader.loadBinaryGraph(file);
+
+        assertFalse(loaded.isDirected());
+        assertGraphEquals(graph, loaded);
+    }
+
+    @Test
+    void testBinaryRejectsCorruptFile() throws IOException {
+        Path file = tempDir.resolve("corrupt.bin");
+        Files.write(file, new byte[64]);
+
+        assertThrows(IOException.class, () -> GraphLoader.loadBinaryGraph(file.toString()));
+
+        Graph graph = new Graph(2, true);
+        graph.addEdge(0, 1);
+        GraphLoader.saveBinaryGraph(graph, file.toString());
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, java.util.Arrays.copyOf(bytes, bytes.length - 1));
+
+        assertThrows(IOException.class, () -> GraphLoader.loadBinaryGraph(file.toString()));
+    }
+
+    @Test
+    void testBinaryValidatesSections() throws IOException {
+        Graph graph = new Graph(3, true);
+        graph.addEdge(0, 1);
+        graph.addEdge(1, 2);
+        Path file = tempDir.resolve("sections.bin");
+        GraphLoader.saveBinaryGraph(graph, file.toString());
+        byte[] valid = Files.readAllBytes(file);
+
+        // Header is 32 bytes, then offsets {0, 1, 2, 2} padded to 16 bytes, then targets {1, 2}.
+        // The first and last offsets are always checked; the rest only by a full scan.
+        assertCorruptAt(file, valid, 32, 1, true);
+        assertCorruptAt(file, valid, 44, 3, true);
+        assertCorruptAt(file, valid, 36, 3, false);
+        assertCorruptAt(file, valid, 52, 3, false);
+        assertCorruptAt(file, valid, 48, -1, false);
+
+        Files.write(file, valid);
+        assertGraphEquals(graph, GraphLoader.loadBinaryGraph(file.toString()));
+        assertGraphEquals(graph, GraphLoader.loadBinaryGraph(file.toString(), true));
+    }
+
+    private static void assertCorruptAt(Path file, byte[] valid, int position, int value, boolean caughtByDefault)
+            throws IOException {
+        byte[] bytes = valid.clone();
+        java.nio.ByteBuffer.wrap(bytes).order(java.nio.ByteOrder.LITTLE_ENDIAN).putInt(position, value);
+        Files.write(file, bytes);
+
+        assertThrows(IOException.class, () -> GraphLoader.loadBinaryGraph(file.toString(), true));
+        if (caughtByDefault) {
+            assertThrows(IOException.class, () -> GraphLoader.loadBinaryGraph(file.toString()));
+        } else {
+            assertNotNull(GraphLoader.loadBinaryGraph(file.toString()));
+        }
+    }
+
+    @Test
+    void testStreamingMatchesGraphData() throws IOException {
+        Path file = tempDir.resolve("graph.json");
+        Files.writeString(file, "{\"directed\": true, \"n\": 4, \"edges\": ["
+                + "{\"u\": 0, \"v\": 1, \"w\": 2}, {\"u\": 1, \"v\": 2}, {\"u\": 2, \"v\": 3, \"w\": 0.5}],"
+                + " \"source\": 0, \"weight_model\": \"edge\"}");
+
+        Graph expected = GraphLoader.loadGraphData(file.toString()).toGraph();
+        Graph streamed = GraphLoader.streamGraph(file.toString());
+
+        assertGraphEquals(expected, streamed);
+        assertEquals(1.0, streamed.getEdgeWeight(1, 0));
+    }
+
+    @Test
+    void testStreamingDefaultsMissingEdgeFieldsLikeGraphData() throws IOException {
+        Path file = tempDir.resolve("missing_fields.json");
+        Files.writeString(file, "{\"directed\": true, \"n\": 3, \"edges\": ["
+                + "{\"v\": 2, \"w\": 4}, {\"u\": 1}, {}]}");
+
+        Graph expected = GraphLoader.loadGraphData(file.toString()).toGraph();
+        Graph streamed = GraphLoader.streamGraph(file.toString());
+
+        assertGraphEquals(expected, streamed);
+        assertEquals(2, streamed.getEdgeTarget(0, 0));
+        assertEquals(0, streamed.getEdgeTarget(1, 0));
+    }
+
+    @Test
+    void testStreamingHandlesHeaderAfterEdges() throws IOException {
+        Path file = tempDir.resolve("late_header.json");
+        Files.writeString(file, "{\"edges\": [{\"v\": 1, \"u\": 0, \"w\": 3, \"note\": {\"x\": [1]}}],"
+                + " \"description\": \"ignored\", \"n\": 2, \"directed\": false}");
+
+        Graph streamed = GraphLoader.streamGraph(file.toString());
+
+        assertFalse(streamed.isDirected());
+        assertEquals(2, streamed.getNumVertices());
+        assertEquals(1, streamed.getNumEdges());
+        assertEquals(0, streamed.getEdgeTarget(1, 0));
+        assertEquals(3.0, streamed.getEdgeWeight(0, 0));
+    }
+
+    @Test
+    void testStreamingShippedDatasets() throws IOException {
+        for (String name : new String[] { "small/small_01_cycle_dag", "medium/medium_01_mixed",
+                "large/large_02_complex_scc" }) {
+            Graph graph = GraphLoader.streamGraph("data/" + name + ".json");
+            assertTrue(graph.getNumVertices() > 0, name);
+            assertTrue(graph.getNumEdges() > 0, name);
+        }
+    }
+
+    @Test
+    void testStreamingDefaultsMissingVertexCountLikeGraphData() throws IOException {
+        Path file = tempDir.resolve("no_n.json");
+        Files.writeString(file, "{\"directed\": true, \"edges\": []}");
+
+        Graph streamed = GraphLoader.streamGraph(file.toString());
+        assertEquals(GraphLoader.loadGraphData(file.toString()).numVertices, streamed.getNumVertices());
+        assertEquals(0, streamed.getNumVertices());
+    }
+
+    @Test
+    void testEdgeListFormats() throws IOException {
+        Path file = tempDir.resolve("edges.tsv");
+        Files.writeString(file, "# u\tv\tw\r\n0\t1\t2.5\r\n\r\n1,2\n 2  0  -1e-3\n% trailing comment\n3\t0\t7");
+
+        CSRGraph graph = GraphLoader.loadEdgeList(file.toString(), true);
+
+        assertEquals(4, graph.getNumVertices());
+        assertEquals(4, graph.getNumEdges());
+        assertEquals(2.5, graph.getEdgeWeight(0, 0));
+        assertEquals(1.0, graph.getEdgeWeight(1, 0));
+        assertEquals(-1e-3, graph.getEdgeWeight(2, 0));
+        assertEquals(7.0, graph.getEdgeWeight(3, 0));
+    }
+
+    @Test
+    void testEdgeListRejectsMalformedLine() throws IOException {
+        Path file = tempDir.resolve("bad.tsv");
+        Files.writeString(file, "0\t1\t1\n1\tx\t2\n");
+
+        assertThrows(IOException.class, () -> GraphLoader.loadEdgeList(file.toString(), true));
+        assertThrows(IllegalArgumentException.class, () -> {
+            Files.writeString(file, "0\t5\n");
+            GraphLoader.loadEdgeList(file.toString(), 3, true);
+        });
+    }
+
+    @Test
+    void testEdgeListRejectsWeightWithoutDigits() throws IOException {
+        Path file = tempDir.resolve("no_digits.tsv");
+        for (String weight : new String[] {".", "-", "+", "-.", "+."}) {
+            Files.writeString(file, "0\t1\t1.5\n1\t2\t" + weight + "\n");
+            IOException e = assertThrows(IOException.class, () -> GraphLoader.loadEdgeList(file.toString(), true),
+                    weight);
+            assertTrue(e.getMessage().startsWith("Malformed edge line"), weight);
+        }
+
+        Files.writeString(file, "0\t1\t-.5\n1\t2\t3.\n");
+        CSRGraph graph = GraphLoader.loadEdgeList(file.toString(), true);
+        assertEquals(-0.5, graph.getEdgeWeight(0, 0));
+        assertEquals(3.0, graph.getEdgeWeight(1, 0));
+    }
+
+    @Test
+    void testParallelEdgeListMatchesSequentialGraph() throws IOException {
+        int n = 5000;
+        java.util.Random random = new java.util.Random(42);
+        Graph expected = new Graph(n, true);
+        StringBuilder sb = new StringBuilder();
+
+        for (int i = 0; i < 40000; i++) {
+            int u = random.nextInt(n);
+            int v = random.nextInt(n);
+            double w = random.nextInt(100000) / 100.0;
+            expected.addEdge(u, v, w);
+            sb.append(u).append('\t').append(v).append('\t').append(w).append('\n');
+        }
+
+        Path file = tempDir.resolve("random.tsv");
+        Files.writeString(file, sb);
+
+        CSRGraph loaded = EdgeListLoader.load(file.toString(), n, true, 8);
+
+        assertGraphEquals(expected, loaded);
+    }
+
+    static void assertGraphEquals(AdjacencyGraph expected, AdjacencyGraph actual) {
+        assertEquals(expected.getNumVertices(), actual.getNumVertices());
+        assertEquals(expected.getNumEdges(), actual.getNumEdges());
+        assertEquals(expected.isDirected(), actual.isDirected());
+        for (int u = 0; u < expected.getNumVertices(); u++) {
+            assertEquals(expected.getOutDegree(u), actual.getOutDegree(u), "degree of " + u);
+            for (int i = 0; i < expected.getOutDegree(u); i++) {
+                assertEquals(expected.getEdgeTarget(u, i), actual.getEdgeTarget(u, i));
+                assertEquals(expected.getEdgeWeight(u, i), actual.getEdgeWeight(u, i));
+            }
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.smartcity.common;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class GraphTest {
+
+    @Test
+    void testCursorVisitsEdgesInInsertionOrder() {
+        Graph graph = new Graph(3, true);
+        for (int i = 0; i < 10; i++) {
+            graph.addEdge(0, 1 + i % 2, i);
+        }
+
+        for (AdjacencyGraph g : new AdjacencyGraph[] { graph, CSRGraph.fromGraph(graph) }) {
+            EdgeCursor cursor = g.edgeCursor();
+            cursor.reset(0);
+            int count = 0;
+            while (cursor.next()) {
+                assertEquals(1 + count % 2, cursor.target());
+                assertEquals(count, cursor.weight());
+                count++;
+            }
+            assertEquals(10, count);
+
+            cursor.reset(2);
+            assertFalse(cursor.next());
+        }
+    }
+
+    @Test
+    void testForEachEdge() {
+        Graph graph = new Graph(3, false);
+        graph.addEdge(0, 1, 2);
+        graph.addEdge(0, 2, 3);
+
+        List<Integer> targets = new ArrayList<>();
+        graph.forEachEdge(0, (target, weight) -> targets.add(target));
+
+        assertEquals(List.of(1, 2), targets);
+        assertEquals(1, graph.getOutDegree(1));
+        assertEquals(0, graph.getEdgeTarget(2, 0));
+        assertEquals(2, graph.getNumEdges());
+    }
+
+    @Test
+    void testInDegreesTrackedOnInsert() {
+        Graph graph = new Graph(3, true);
+        graph.addEdge(0, 2);
+        graph.addEdge(1, 2);
+        graph.addEdge(2, 0);
+
+        assertEquals(2, graph.getInDegree(2));
+        assertArrayEquals(new int[] { 1, 0, 2 }, graph.getInDegrees());
+
+        int[] copy = graph.getInDegrees();
+        copy[2] = 0;
+        assertEquals(2, graph.getInDegree(2));
+
+        Graph undirected = new Graph(2, false);
+        undirected.addEdge(0, 1);
+        assertArrayEquals(new int[] { 1, 1 }, undirected.getInDegrees());
+    }
+
+    @Test
+    void testDerivedCacheFollowsVersion() {
+        Graph graph = new Graph(2, true);
+        DerivedCache.Key<String> key = new DerivedCache.Key<>("test");
+        long initial = graph.getVersion();
+
+        assertEquals("a", graph.getDerivedCache().computeIfAbsent(key, () -> "a"));
+        assertEquals("a", graph.getDerivedCache().computeIfAbsent(key, () -> "b"));
+
+        graph.addEdge(0, 1);
+
+        assertEquals(initial + 1, graph.getVersion());
+        assertFalse(graph.getDerivedCache().contains(key));
+        assertEquals("c", graph.getDerivedCache().computeIfAbsent(key, () -> "c"));
+    }
+
+    @Test
+    void testDerivedCacheDropsValueComputedAcrossMutation() {
+        Graph graph = new Graph(2, true);
+        DerivedCache.Key<String> key = new DerivedCache.Key<>("test");
+
+        String value = graph.getDerivedCache().computeIfAbsent(key, () -> {
+            graph.addEdge(0, 1);
+            return "stale";
+        });
+
+        assertEquals("stale", value);
+        assertFalse(graph.getDerivedCache().contains(key));
+        assertEquals("fresh", graph.getDerivedCache().computeIfAbsent(key, () -> "fresh"));
+    }
+
+    @Test
+    void testDerivedCacheDoesNotLockWhileComputing() throws Exception {
+        Graph graph = new Graph(2, true);
+        DerivedCache.Key<String> slow = new DerivedCache.Key<>("slow");
+        DerivedCache.Key<String> fast = new DerivedCache.Key<>("fast");
+        CountDownLatch otherReaderDone = new CountDownLatch(1);
+
+        Thread reader = new Thread(() -> {
+            graph.getDerivedCache().computeIfAbsent(fast, () -> "fast");
+            otherReaderDone.countDown();
+        });
+        String value = graph.getDerivedCache().computeIfAbsent(slow, () -> {
+            reader.start();
+            try {
+                assertTrue(otherReaderDone.await(10, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return "slow";
+        });
+        reader.join();
+
+        assertEquals("slow", value);
+        assertTrue(graph.getDerivedCache().contains(fast));
+    }
+
+    @Test
+    void testGetEdgesIsReadOnlyView() {
+        Graph graph = new Graph(2, true);
+        graph.addEdge(0, 1, 4);
+
+        List<Graph.Edge> edges = graph.getEdges(0);
+
+        assertEquals(1, edges.size());
+        assertEquals(1, edges.get(0).to);
+        assertEquals(4.0, edges.get(0).weight);
+        assertThrows(UnsupportedOperationException.class, () -> edges.add(new Graph.Edge(0, 0)));
+        assertThrows(IllegalArgumentException.class, () -> graph.getEdges(2));
+    }
+
+    @Test
+    void testToStringListsEdges() {
+        Graph graph = new Graph(2, true);
+        graph.addEdge(0, 1, 4);
+        graph.addEdge(0, 0);
+
+        assertEquals("Graph: 2 vertices, 2 edges, directed\n"
+                + "Vertex 0: [(0 -> 1, w=4.00), (0 -> 0, w=1.00)]\n"
+                + "Vertex 1: []\n", graph.toString());
+    }
+}
@@ -0,0 +1,67 @@
+package com.smartcity.common;
+
+import com.smartcity.graph.dagsp.*;
+import com.smartcity.graph.scc.*;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OffHeapGraphTest {
+
+    @Test
+    void testCopyMatchesGraph() {
+        Graph graph = new Graph(5, true);
+        graph.addEdge(0, 1, 1.5);
+        graph.addEdge(0, 3, 2.5);
+        graph.addEdge(3, 4, 3.5);
+        graph.addEdge(4, 3, 4.5);
+
+        OffHeapGraph offHeap = OffHeapGraph.fromGraph(graph);
+
+        assertEquals(5, offHeap.getNumVertices());
+        assertEquals(4, offHeap.getNumEdges());
+        for (int u = 0; u < graph.getNumVertices(); u++) {
+            assertEquals(graph.getOutDegree(u), offHeap.getOutDegree(u));
+            for (int i = 0; i < graph.getOutDegree(u); i++) {
+                assertEquals(graph.getEdgeTarget(u, i), offHeap.getEdgeTarget(u, i));
+                assertEquals(graph.getEdgeWeight(u, i), offHeap.getEdgeWeight(u, i));
+            }
+        }
+    }
+
+    @Test
+    void testBuilderRequiresSourceOrder() {
+        OffHeapGraph.Builder builder = new OffHeapGraph.Builder(3, 2, true);
+        builder.addEdge(1, 2, 1.0);
+
+        assertThrows(IllegalStateException.class, () -> builder.addEdge(0, 1, 1.0));
+        assertThrows(IllegalArgumentException.class, () -> builder.addEdge(1, 3, 1.0));
+        assertThrows(IllegalStateException.class, builder::build);
+    }
+
+    @Test
+    void testAlgorithmsOnOffHeapGraph() {
+        OffHeapGraph graph = new OffHeapGraph.Builder(5, 5, true)
+                .addEdge(0, 1, 2)
+                .addEdge(1, 2, 3)
+                .addEdge(2, 0, 1)
+                .addEdge(2, 3, 4)
+                .addEdge(3, 4, 5)
+                .build();
+
+        Metrics metrics = new MetricsImpl();
+        SCCResult sccResult = new TarjanSCC(graph, metrics).findSCC();
+        assertEquals(3, sccResult.getNumComponents());
+        assertTrue(sccResult.inSameComponent(0, 2));
+
+        OffHeapGraph dag = new OffHeapGraph.Builder(4, 3, true)
+                .addEdge(0, 1, 2)
+                .addEdge(1, 3, 3)
+                .addEdge(2, 3, 1)
+                .build();
+        assertEquals(0, dag.getOutDegree(3));
+
+        PathResult longest = new DAGLongestPath(dag, metrics).findLongestPaths(0);
+        assertEquals(5.0, longest.getDistance(3));
+        assertFalse(longest.isReachable(2));
+    }
+}
@@ -186,6 +186,28 @@ public class DAGShortestPathTest {
         assertTrue(metrics.getTime("dag_shortest_paths") > 0);
     }
 
+    @Test
+    void testTopologicalOrderComputedOncePerGraphVersion() {
+        Graph dag = new Graph(5, true);
+        dag.addEdge(0, 1, 2);
+        dag.addEdge(0, 2, 1);
+        dag.addEdge(1, 3, 4);
+        dag.addEdge(2, 3, 1);
+
+        DAGShortestPath shortestPath = new DAGShortestPath(dag, metrics);
+        DAGLongestPath longestPath = new DAGLongestPath(dag, metrics);
+        for (int source = 0; source < 4; source++) {
+            shortestPath.findShortestPaths(source);
+            longestPath.findLongestPaths(source);
+        }
+        longestPath.findCriticalPath();
+        assertEquals(1, metrics.getCounter("kahn_runs"));
+
+        dag.addEdge(3, 4, 1);
+        assertEquals(7.0, longestPath.findLongestPaths(0).getDistance(4), 0.001);
+        assertEquals(2, metrics.getCounter("kahn_runs"));
+    }
+
     @Test
     void testPathResultMethods() {
         Graph dag = new Graph(3, true);
@@ -0,0 +1,276 @@
+package com.smartcity.graph.scc;
+
+import com.smartcity.common.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class DynamicSCCTest {
+
+    private Metrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        metrics = new MetricsImpl();
+    }
+
+    @Test
+    void testInsertionClosingCycleMergesComponents() {
+        Graph graph = new Graph(5, true);
+        graph.addEdge(0, 1);
+        graph.addEdge(1, 2);
+        graph.addEdge(2, 3);
+        graph.addEdge(3, 4);
+
+        DynamicSCC scc = new DynamicSCC(graph, new TarjanSCC(graph, metrics).findSCC(), metrics);
+        assertEquals(5, scc.getNumComponents());
+
+        int[] merged = scc.addEdge(3, 1);
+        int[] expected = { scc.getComponentId(1), scc.getComponentId(2), scc.getComponentId(3) };
+
+        assertEquals(3, merged.length);
+        assertEquals(3, scc.getNumComponents());
+        assertTrue(scc.inSameComponent(1, 3));
+        assertTrue(scc.inSameComponent(2, 3));
+        assertFalse(scc.inSameComponent(0, 1));
+        assertFalse(scc.inSameComponent(3, 4));
+        assertArrayEquals(new int[] { 1, 2, 3 }, sorted(scc.getMembers(expected[0])));
+    }
+
+    @Test
+    void testInsertionWithoutCycleOnlyReorders() {
+        Graph graph = new Graph(4, true);
+        graph.addEdge(0, 1);
+        graph.addEdge(2, 3);
+
+        DynamicSCC scc = new DynamicSCC(graph, new TarjanSCC(graph, metrics).findSCC(), metrics);
+
+        assertEquals(0, scc.addEdge(3, 0).length);
+        assertEquals(0, scc.addEdge(2, 0).length);
+        assertEquals(4, scc.getNumComponents());
+
+        graph.addEdge(3, 0);
+        graph.addEdge(2, 0);
+        ParallelSCCTest.assertSamePartition(graph, new TarjanSCC(graph, metrics).findSCC(), scc.toSCCResult());
+
+        assertEquals(4, scc.addEdge(1, 2).length);
+        assertEquals(1, scc.getNumComponents());
+    }
+
+    @Test
+    void testRandomInsertionsMatchRecomputation() {
+        Random random = new Random(5);
+        int n = 300;
+        Graph graph = new Graph(n, true);
+        for (int i = 0; i < n / 2; i++) {
+            graph.addEdge(random.nextInt(n), random.nextInt(n));
+        }
+
+        DynamicSCC scc = new DynamicSCC(graph, new TarjanSCC(graph, metrics).findSCC(), metrics);
+        for (int i = 0; i < 2 * n; i++) {
+            int u = random.nextInt(n);
+            int v = random.nextInt(n);
+            boolean wasSame = scc.inSameComponent(u, v);
+            int[] merged = scc.addEdge(u, v);
+            graph.addEdge(u, v);
+
+            SCCResult expected = new TarjanSCC(graph, metrics).findSCC();
+            ParallelSCCTest.assertSamePartition(graph, expected, scc.toSCCResult());
+            assertEquals(expected.getNumComponents(), scc.getNumComponents());
+            if (wasSame) {
+                assertEquals(0, merged.length);
+            }
+            if (merged.length > 0) {
+                assertTrue(Arrays.stream(merged).anyMatch(c -> c == scc.getComponentId(u)));
+            }
+        }
+    }
+
+    @Test
+    void testInsertionWorkIsLocal() {
+        int n = 100_000;
+        Graph graph = new Graph(n, true);
+        for (int v = 0; v + 1 < n; v++) {
+            graph.addEdge(v, v + 1);
+        }
+
+        DynamicSCC scc = new DynamicSCC(graph, new TarjanSCC(graph, metrics).findSCC(), metrics);
+        int[] merged = scc.addEdge(50_010, 50_000);
+
+        assertEquals(11, merged.length);
+        assertEquals(n - 10, scc.getNumComponents());
+        assertTrue(metrics.getCounter("dynamic_scc_components_visited") <= 22);
+    }
+
+    @Test
+    void testRemovalSplitsComponent() {
+        Graph graph = new Graph(4, true);
+        graph.addEdge(0, 1);
+        graph.addEdge(1, 2);
+        graph.addEdge(2, 0);
+        graph.addEdge(2, 3);
+
+        DynamicSCC scc = new DynamicSCC(graph, new TarjanSCC(graph, metrics).findSCC(), metrics);
+        assertEquals(2, scc.getNumComponents());
+
+        int[] pieces = scc.removeEdge(1, 2);
+
+        assertEquals(4, scc.getNumComponents());
+        assertArrayEquals(new int[] { scc.getComponentId(2), scc.getComponentId(0), scc.getComponentId(1) }, pieces);
+        SCCResult snapshot = scc.toSCCResult();
+        assertTrue(snapshot.getComponentId(2) < snapshot.getComponentId(0));
+        assertTrue(snapshot.getComponentId(0) < snapshot.getComponentId(1));
+        assertTrue(snapshot.getComponentId(2) < snapshot.getComponentId(3));
+    }
+
+    @Test
+    void testRemovalBetweenComponentsKeepsPartition() {
+        Graph graph = new Graph(3, true);
+        graph.addEdge(0, 1);
+        graph.addEdge(1, 0);
+        graph.addEdge(1, 2);
+        graph.addEdge(1, 2);
+
+        DynamicSCC scc = new DynamicSCC(graph, new TarjanSCC(graph, metrics).findSCC(), metrics);
+
+        assertEquals(0, scc.removeEdge(1, 2).length);
+        assertEquals(0, scc.removeEdge(1, 2).length);
+        assertEquals(2, scc.getNumComponents());
+        assertEquals(0, metrics.getCounter("dynamic_scc_vertices_rescanned"));
+
+        assertEquals(2, scc.addEdge(2, 0).length + scc.addEdge(0, 2).length);
+        assertEquals(1, scc.getNumComponents());
+    }
+
+    @Test
+    void testRemovingMissingEdgeThrows() {
+        Graph graph = new Graph(2, true);
+        graph.addEdge(0, 1);
+        DynamicSCC scc = new DynamicSCC(graph, new TarjanSCC(graph, metrics).findSCC(), metrics);
+
+        assertThrows(IllegalArgumentException.class, () -> scc.removeEdge(1, 0));
+        scc.removeEdge(0, 1);
+        assertThrows(IllegalArgumentException.class, () -> scc.removeEdge(0, 1));
+    }
+
+    @Test
+    void testRemovalInsideSmallComponentIsLocal() {
+        int n = 90_000;
+        Graph graph = new Graph(n, true);
+        for (int v = 0; v < n; v += 3) {
+            graph.addEdge(v, v + 1);
+            graph.addEdge(v + 1, v + 2);
+            graph.addEdge(v + 2, v);
+            if (v + 3 < n) {
+                graph.addEdge(v + 2, v + 3);
+            }
+        }
+
+        DynamicSCC scc = new DynamicSCC(graph, new TarjanSCC(graph, metrics).findSCC(), metrics);
+        int[] pieces = scc.removeEdge(45_001, 45_002);
+
+        assertEquals(3, pieces.length);
+        assertEquals(n / 3 + 2, scc.getNumComponents());
+        assertEquals(3, metrics.getCounter("dynamic_scc_vertices_rescanned"));
+    }
+
+    @Test
+    void testRepeatedSplitsRelabelPositions() {
+        int n = 41;
+        Graph graph = new Graph(n, true);
+        for (int v = 0; v + 1 < n; v++) {
+            graph.addEdge(v, v + 1);
+        }
+
+        DynamicSCC scc = new DynamicSCC(graph, new TarjanSCC(graph, metrics).findSCC(), metrics);
+        for (int round = 0; round < 10; round++) {
+            assertEquals(40, scc.addEdge(39, 0).length);
+            assertEquals(40, scc.removeEdge(39, 0).length);
+        }
+
+        assertTrue(metrics.getCounter("dynamic_scc_relabels") > 0);
+        ParallelSCCTest.assertSamePartition(graph, new TarjanSCC(graph, metrics).findSCC(), scc.toSCCResult());
+    }
+
+    @Test
+    void testSplitIntoMorePiecesThanGap() {
+        // A cycle longer than the 2^20 position gap feeding a sink: breaking
+        // it yields more pieces than fit before the sink's position.
+        int cycle = (1 << 20) + 10;
+        int[] from = new int[cycle + 1];
+        int[] to = new int[cycle + 1];
+        for (int v = 0; v < cycle; v++) {
+            from[v] = v;
+            to[v] = (v + 1) % cycle;
+        }
+        from[cycle] = cycle - 1;
+        to[cycle] = cycle;
+        CSRGraph graph = new GraphBuilder(cycle + 1, true).addEdges(from, to, null).build();
+
+        DynamicSCC scc = new DynamicSCC(graph, new TarjanSCC(graph, metrics).findSCC(), metrics);
+        assertEquals(2, scc.getNumComponents());
+
+        assertEquals(cycle, scc.removeEdge(cycle - 1, 0).length);
+        assertEquals(cycle + 1, scc.getNumComponents());
+        assertFalse(scc.inSameComponent(0, cycle - 1));
+
+        SCCResult result = scc.toSCCResult();
+        assertEquals(cycle + 1, result.getNumComponents());
+        for (int v = 0; v < cycle; v++) {
+            assertTrue(result.getComponentId(v) < result.getComponentId(v + 1));
+        }
+    }
+
+    @Test
+    void testRandomInsertionsAndRemovalsMatchRecomputation() {
+        Random random = new Random(17);
+        int n = 60;
+        List<int[]> edges = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            edges.add(new int[] { random.nextInt(n), random.nextInt(n) });
+        }
+
+        DynamicSCC scc = new DynamicSCC(buildGraph(n, edges), new TarjanSCC(buildGraph(n, edges), metrics).findSCC(), metrics);
+        for (int step = 0; step < 3000; step++) {
+            if (edges.isEmpty() || random.nextInt(5) < 3 && edges.size() < 3 * n) {
+                int[] edge = { random.nextInt(n), random.nextInt(n) };
+                edges.add(edge);
+                scc.addEdge(edge[0], edge[1]);
+            } else {
+                int[] edge = edges.remove(random.nextInt(edges.size()));
+                scc.removeEdge(edge[0], edge[1]);
+            }
+
+            Graph graph = buildGraph(n, edges);
+            SCCResult expected = new TarjanSCC(graph, metrics).findSCC();
+            ParallelSCCTest.assertSamePartition(graph, expected, scc.toSCCResult());
+            assertEquals(expected.getNumComponents(), scc.getNumComponents());
+        }
+        assertTrue(metrics.getCounter("dynamic_scc_splits") > 0);
+    }
+
+    @Test
+    void testRejectsUndirectedGraph() {
+        Graph graph = new Graph(2, false);
+        SCCResult seed = new SCCResult(Arrays.asList(Arrays.asList(0, 1)), new int[] { 0, 0 });
+        assertThrows(IllegalArgumentException.class, () -> new DynamicSCC(graph, seed, metrics));
+    }
+
+    private static Graph buildGraph(int n, List<int[]> edges) {
+        Graph graph = new Graph(n, true);
+        for (int[] edge : edges) {
+            graph.addEdge(edge[0], edge[1]);
+        }
+        return graph;
+    }
+
+    private static int[] sorted(int[] values) {
+        int[] copy = values.clone();
+        Arrays.sort(copy);
+        return copy;
+    }
+}
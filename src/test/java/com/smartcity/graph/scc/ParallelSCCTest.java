@@ -0,0 +1,126 @@
+package com.smartcity.graph.scc;
+
+import com.smartcity.common.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.Arrays;
+import java.util.Random;
+
+public class ParallelSCCTest {
+
+    private Metrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        metrics = new MetricsImpl();
+    }
+
+    @Test
+    void testSmallGraphFallsBackToTarjan() {
+        Graph graph = new Graph(4, true);
+        graph.addEdge(0, 1);
+        graph.addEdge(1, 0);
+        graph.addEdge(1, 2);
+
+        SCCResult result = new ParallelSCC(graph, metrics).findSCC();
+
+        assertEquals(3, result.getNumComponents());
+        assertTrue(result.inSameComponent(0, 1));
+        assertEquals(1, metrics.getCounter("parallel_scc_fallbacks"));
+    }
+
+    @Test
+    void testMatchesTarjanOnGiantAndSmallComponents() {
+        int n = 60_000;
+        Random random = new Random(11);
+        GraphBuilder builder = new GraphBuilder(n, true);
+
+        int giant = n / 2;
+        for (int v = 0; v < giant; v++) {
+            builder.addEdge(v, (v + 1) % giant, 1);
+            builder.addEdge(v, random.nextInt(giant), 1);
+        }
+        for (int v = giant; v < n; v += 3) {
+            if (v + 2 < n) {
+                builder.addEdge(v, v + 1, 1);
+                builder.addEdge(v + 1, v, 1);
+            }
+            builder.addEdge(random.nextInt(giant), v, 1);
+            builder.addEdge(v, giant + random.nextInt(n - giant), 1);
+        }
+        CSRGraph graph = builder.build();
+
+        SCCResult expected = new TarjanSCC(graph, metrics).findSCC();
+        SCCResult actual = new ParallelSCC(graph, metrics).setSequentialThreshold(0).findSCC();
+
+        assertSamePartition(graph, expected, actual);
+        assertTrue(metrics.getCounter("fwbw_pivots") > 0);
+    }
+
+    @Test
+    void testRandomGraphsMatchTarjan() {
+        Random random = new Random(3);
+        for (int round = 0; round < 5; round++) {
+            int n = 5000 + random.nextInt(20000);
+            GraphBuilder builder = new GraphBuilder(n, true);
+            for (int i = 0; i < n * 3 / 2; i++) {
+                builder.addEdge(random.nextInt(n), random.nextInt(n), 1);
+            }
+            CSRGraph graph = builder.build();
+
+            SCCResult expected = new TarjanSCC(graph, metrics).findSCC();
+            SCCResult actual = new ParallelSCC(graph, metrics).setSequentialThreshold(0).findSCC();
+
+            assertSamePartition(graph, expected, actual);
+        }
+    }
+
+    @Test
+    void testChainOfSmallCyclesMatchesTarjan() {
+        int n = 40_000;
+        GraphBuilder builder = new GraphBuilder(n, true);
+        for (int v = 0; v + 1 < n; v += 2) {
+            builder.addEdge(v, v + 1, 1);
+            builder.addEdge(v + 1, v, 1);
+            if (v + 2 < n) {
+                builder.addEdge(v + 1, v + 2, 1);
+            }
+        }
+        CSRGraph graph = builder.build();
+
+        SCCResult expected = new TarjanSCC(graph, metrics).findSCC();
+        SCCResult actual = new ParallelSCC(graph, metrics).setSequentialThreshold(0).findSCC();
+
+        assertEquals(n / 2, actual.getNumComponents());
+        assertSamePartition(graph, expected, actual);
+    }
+
+    static void assertSamePartition(AdjacencyGraph graph, SCCResult expected, SCCResult actual) {
+        int n = graph.getNumVertices();
+        assertEquals(expected.getNumComponents(), actual.getNumComponents());
+
+        int[] mapping = new int[expected.getNumComponents()];
+        int[] inverse = new int[actual.getNumComponents()];
+        Arrays.fill(mapping, -1);
+        Arrays.fill(inverse, -1);
+        for (int v = 0; v < n; v++) {
+            int e = expected.getComponentId(v);
+            int a = actual.getComponentId(v);
+            if (mapping[e] == -1 && inverse[a] == -1) {
+                mapping[e] = a;
+                inverse[a] = e;
+            }
+            assertEquals(mapping[e], a, "vertex " + v);
+            assertEquals(inverse[a], e, "vertex " + v);
+        }
+
+        for (int u = 0; u < n; u++) {
+            for (int i = 0; i < graph.getOutDegree(u); i++) {
+                int v = graph.getEdgeTarget(u, i);
+                assertTrue(actual.getComponentId(u) <= actual.getComponentId(v),
+                        "Component ids must follow topological order");
+            }
+        }
+    }
+}
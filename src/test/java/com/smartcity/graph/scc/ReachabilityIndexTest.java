@@ -0,0 +1,112 @@
+package com.smartcity.graph.scc;
+
+import com.smartcity.common.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.Random;
+
+public class ReachabilityIndexTest {
+
+    private Metrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        metrics = new MetricsImpl();
+    }
+
+    @Test
+    void testSmallGraph() {
+        // 0 <-> 1 -> 2 -> 3, 4 isolated
+        Graph graph = new Graph(5, true);
+        graph.addEdge(0, 1);
+        graph.addEdge(1, 0);
+        graph.addEdge(1, 2);
+        graph.addEdge(2, 3);
+
+        ReachabilityIndex index = new ReachabilityIndex(graph, metrics);
+        assertTrue(index.canReach(1, 0));
+        assertTrue(index.canReach(0, 3));
+        assertFalse(index.canReach(3, 0));
+        assertFalse(index.canReach(0, 4));
+        assertTrue(index.canReach(4, 4));
+
+        assertArrayEquals(new boolean[] { true, false, true },
+                index.canReach(new int[] { 2, 2, 1 }, new int[] { 3, 1, 2 }));
+        assertThrows(IllegalArgumentException.class, () -> index.canReach(new int[] { 0 }, new int[0]));
+
+        boolean[] reachable = new boolean[5];
+        assertEquals(4, index.reachableFrom(1, reachable));
+        assertArrayEquals(new boolean[] { true, true, true, true, false }, reachable);
+    }
+
+    @Test
+    void testMatchesTraversalOnRandomGraphs() {
+        Random random = new Random(41);
+        for (int round = 0; round < 20; round++) {
+            int n = 1 + random.nextInt(300);
+            Graph graph = new Graph(n, true);
+            int m = random.nextInt(3 * n);
+            for (int i = 0; i < m; i++) {
+                int u = random.nextInt(n);
+                int v = random.nextInt(6) == 0 ? random.nextInt(n) : Math.min(n - 1, u + 1 + random.nextInt(10));
+                graph.addEdge(u, v);
+            }
+
+            SCCResult scc = TarjanSCC.cachedSCC(graph, metrics);
+            CSRGraph dag = SCCCondensation.cachedCondensationDAG(graph, metrics);
+            ReachabilityIndex bitsets = new ReachabilityIndex(scc, dag, ReachabilityIndex.DEFAULT_BITSET_LIMIT, metrics);
+            ReachabilityIndex search = new ReachabilityIndex(scc, dag, 0, metrics);
+            assertTrue(bitsets.usesBitsets());
+            assertFalse(search.usesBitsets());
+
+            for (int u = 0; u < n; u++) {
+                boolean[] expected = traverse(graph, u);
+                for (int v = 0; v < n; v++) {
+                    assertEquals(expected[v], bitsets.canReach(u, v), "bitsets " + u + " -> " + v);
+                    assertEquals(expected[v], search.canReach(u, v), "search " + u + " -> " + v);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testCachedIndex() {
+        Graph graph = new Graph(3, true);
+        graph.addEdge(0, 1);
+        ReachabilityIndex index = ReachabilityIndex.cachedIndex(graph, metrics);
+        assertSame(index, ReachabilityIndex.cachedIndex(graph, metrics));
+        assertFalse(index.canReach(0, 2));
+
+        graph.addEdge(1, 2);
+        assertTrue(ReachabilityIndex.cachedIndex(graph, metrics).canReach(0, 2));
+    }
+
+    @Test
+    void testRejectsNonTopologicalIds() {
+        Graph graph = new Graph(2, true);
+        graph.addEdge(0, 1);
+        SCCResult reversed = new SCCResult(new int[] { 1, 0 }, 2);
+        CSRGraph dag = new SCCCondensation(graph, reversed).buildCondensation(WeightAggregation.FIRST);
+        assertThrows(IllegalArgumentException.class, () -> new ReachabilityIndex(reversed, dag, 0, metrics));
+    }
+
+    private static boolean[] traverse(Graph graph, int source) {
+        boolean[] seen = new boolean[graph.getNumVertices()];
+        int[] stack = new int[graph.getNumVertices()];
+        int top = 0;
+        stack[top++] = source;
+        seen[source] = true;
+        while (top > 0) {
+            int u = stack[--top];
+            for (int i = 0; i < graph.getOutDegree(u); i++) {
+                int v = graph.getEdgeTarget(u, i);
+                if (!seen[v]) {
+                    seen[v] = true;
+                    stack[top++] = v;
+                }
+            }
+        }
+        return seen;
+    }
+}
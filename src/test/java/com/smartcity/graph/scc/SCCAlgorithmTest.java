@@ -0,0 +1,117 @@
+package com.smartcity.graph.scc;
+
+import com.smartcity.common.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class SCCAlgorithmTest {
+
+    private Metrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        metrics = new MetricsImpl();
+    }
+
+    private static List<SCCAlgorithm> algorithms() {
+        return List.of(TarjanSCC.algorithm(), new PearceSCC(), new KosarajuSCC(),
+                ParallelSCC.algorithm(ForkJoinPool.commonPool(), 0));
+    }
+
+    @Test
+    void testAllAlgorithmsMatchTarjanOnRandomGraphs() {
+        Random random = new Random(23);
+        for (int round = 0; round < 20; round++) {
+            int n = 1 + random.nextInt(400);
+            Graph graph = new Graph(n, true);
+            int m = random.nextInt(3 * n);
+            for (int i = 0; i < m; i++) {
+                graph.addEdge(random.nextInt(n), random.nextInt(n));
+            }
+            SCCResult expected = new TarjanSCC(graph, metrics).findSCC();
+
+            for (SCCAlgorithm algorithm : algorithms()) {
+                SCCResult actual = algorithm.findSCC(graph, metrics);
+                ParallelSCCTest.assertSamePartition(graph, expected, actual);
+                for (int v = 0; v < n; v++) {
+                    assertTrue(actual.getComponent(actual.getComponentId(v)).contains(v));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testAllAlgorithmsOnCompressedGraphs() {
+        Random random = new Random(29);
+        for (int round = 0; round < 10; round++) {
+            int n = 1 + random.nextInt(300);
+            Graph graph = new Graph(n, true);
+            for (int i = 0; i < 3 * n; i++) {
+                graph.addEdge(random.nextInt(n), random.nextInt(n));
+            }
+            CompressedGraph compressed = CompressedGraph.encode(graph);
+            SCCResult expected = new TarjanSCC(graph, metrics).findSCC();
+
+            for (SCCAlgorithm algorithm : algorithms()) {
+                ParallelSCCTest.assertSamePartition(graph, expected, algorithm.findSCC(compressed, metrics));
+            }
+        }
+    }
+
+    @Test
+    void testSimpleCycleWithTail() {
+        Graph graph = new Graph(4, true);
+        graph.addEdge(0, 1);
+        graph.addEdge(1, 2);
+        graph.addEdge(2, 0);
+        graph.addEdge(2, 3);
+
+        for (SCCAlgorithm algorithm : algorithms()) {
+            SCCResult result = algorithm.findSCC(graph, metrics);
+            assertEquals(2, result.getNumComponents());
+            assertTrue(result.inSameComponent(0, 2));
+            assertEquals(0, result.getComponentId(0));
+            assertEquals(1, result.getComponentId(3));
+        }
+    }
+
+    @Test
+    void testDeepChainAndCycle() {
+        int n = 1_000_000;
+        GraphBuilder chainBuilder = new GraphBuilder(n, true);
+        GraphBuilder cycleBuilder = new GraphBuilder(n, true);
+        for (int v = 0; v < n; v++) {
+            if (v + 1 < n) {
+                chainBuilder.addEdge(v, v + 1, 1);
+            }
+            cycleBuilder.addEdge(v, (v + 1) % n, 1);
+        }
+        CSRGraph chain = chainBuilder.build();
+        CSRGraph cycle = cycleBuilder.build();
+
+        for (SCCAlgorithm algorithm : List.of(new PearceSCC(), new KosarajuSCC())) {
+            SCCResult chainResult = algorithm.findSCC(chain, metrics);
+            assertEquals(n, chainResult.getNumComponents());
+            assertEquals(0, chainResult.getComponentId(0));
+            assertEquals(n - 1, chainResult.getComponentId(n - 1));
+            assertEquals(1, algorithm.findSCC(cycle, metrics).getNumComponents());
+        }
+    }
+
+    @Test
+    void testUndirectedGraphRejected() {
+        Graph graph = new Graph(2, false);
+        for (SCCAlgorithm algorithm : algorithms()) {
+            assertThrows(IllegalArgumentException.class, () -> algorithm.findSCC(graph, metrics));
+        }
+    }
+
+    @Test
+    void testUnboundTarjanRequiresGraph() {
+        assertThrows(IllegalStateException.class, () -> new TarjanSCC().findSCC());
+    }
+}
@@ -0,0 +1,119 @@
+package com.smartcity.graph.scc;
+
+import com.smartcity.common.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class SCCCondensationTest {
+
+    private Metrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        metrics = new MetricsImpl();
+    }
+
+    @Test
+    void testAggregatesParallelComponentEdges() {
+        // {0,1} -> {2,3} over three edges, {0,1} -> {4} over one
+        Graph graph = new Graph(5, true);
+        graph.addEdge(0, 1, 1);
+        graph.addEdge(1, 0, 1);
+        graph.addEdge(2, 3, 1);
+        graph.addEdge(3, 2, 1);
+        graph.addEdge(0, 2, 5);
+        graph.addEdge(1, 3, 2);
+        graph.addEdge(1, 2, 8);
+        graph.addEdge(0, 4, 3);
+
+        SCCResult result = new TarjanSCC(graph, metrics).findSCC();
+        SCCCondensation condensation = new SCCCondensation(graph, result);
+        int a = result.getComponentId(0);
+        int b = result.getComponentId(2);
+
+        assertEquals(5.0, weight(condensation.buildCondensation(WeightAggregation.FIRST), a, b));
+        assertEquals(2.0, weight(condensation.buildCondensation(WeightAggregation.MIN), a, b));
+        assertEquals(8.0, weight(condensation.buildCondensation(WeightAggregation.MAX), a, b));
+        assertEquals(15.0, weight(condensation.buildCondensation(WeightAggregation.SUM), a, b));
+        assertEquals(3.0, weight(condensation.buildCondensation(WeightAggregation.COUNT), a, b));
+
+        CSRGraph dag = condensation.buildCondensation(WeightAggregation.SUM);
+        assertEquals(3, dag.getNumVertices());
+        assertEquals(2, dag.getNumEdges());
+        assertEquals(1.0, weight(condensation.buildCondensation(WeightAggregation.COUNT), a,
+                result.getComponentId(4)));
+    }
+
+    @Test
+    void testMatchesLegacyGraphCondensation() {
+        Graph graph = randomGraph(new Random(5), 300);
+        SCCResult result = new TarjanSCC(graph, metrics).findSCC();
+        SCCCondensation condensation = new SCCCondensation(graph, result);
+
+        Graph legacy = condensation.buildCondensationDAG();
+        CSRGraph dag = condensation.buildCondensation(WeightAggregation.FIRST);
+        assertEquals(legacy.getNumVertices(), dag.getNumVertices());
+        assertEquals(legacy.getNumEdges(), dag.getNumEdges());
+        for (int c = 0; c < dag.getNumVertices(); c++) {
+            assertEquals(legacy.getOutDegree(c), dag.getOutDegree(c));
+            for (int i = 0; i < dag.getOutDegree(c); i++) {
+                assertEquals(legacy.getEdgeTarget(c, i), dag.getEdgeTarget(c, i));
+                assertEquals(legacy.getEdgeWeight(c, i), dag.getEdgeWeight(c, i));
+                assertTrue(c < dag.getEdgeTarget(c, i));
+            }
+        }
+    }
+
+    @Test
+    void testParallelBuildMatchesSequential() {
+        Random random = new Random(17);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int round = 0; round < 4; round++) {
+                Graph graph = randomGraph(random, 20_000 + random.nextInt(20_000));
+                SCCResult result = new TarjanSCC(graph, metrics).findSCC();
+                SCCCondensation condensation = new SCCCondensation(graph, result);
+
+                for (WeightAggregation aggregation : WeightAggregation.values()) {
+                    CSRGraph expected = condensation.buildCondensation(aggregation);
+                    CSRGraph actual = condensation.buildCondensation(aggregation, pool);
+                    assertEquals(expected.getNumEdges(), actual.getNumEdges());
+                    for (int c = 0; c < expected.getNumVertices(); c++) {
+                        assertEquals(expected.getEdgeStart(c), actual.getEdgeStart(c));
+                        for (int e = expected.getEdgeStart(c); e < expected.getEdgeEnd(c); e++) {
+                            assertEquals(expected.getTarget(e), actual.getTarget(e));
+                            assertEquals(expected.getWeight(e), actual.getWeight(e));
+                        }
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static Graph randomGraph(Random random, int n) {
+        Graph graph = new Graph(n, true);
+        int m = 2 * n;
+        for (int i = 0; i < m; i++) {
+            // Mostly forward edges plus a few back edges, so there are many
+            // components and many parallel edges between them.
+            int u = random.nextInt(n);
+            int v = random.nextInt(10) == 0 ? random.nextInt(n) : Math.min(n - 1, u + random.nextInt(8));
+            graph.addEdge(u, v, random.nextInt(10));
+        }
+        return graph;
+    }
+
+    private static double weight(CSRGraph dag, int from, int to) {
+        for (int e = dag.getEdgeStart(from); e < dag.getEdgeEnd(from); e++) {
+            if (dag.getTarget(e) == to) {
+                return dag.getWeight(e);
+            }
+        }
+        return Double.NaN;
+    }
+}
@@ -0,0 +1,71 @@
+package com.smartcity.graph.scc;
+
+import com.smartcity.common.*;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.Arrays;
+import java.util.List;
+
+public class SCCResultTest {
+
+    @Test
+    void testGroupsMembersByComponent() {
+        SCCResult result = new SCCResult(new int[] { 1, 0, 1, 2, 0 }, 3);
+
+        assertEquals(3, result.getNumComponents());
+        assertEquals(List.of(1, 4), result.getComponent(0));
+        assertEquals(List.of(0, 2), result.getComponent(1));
+        assertEquals(List.of(3), result.getComponent(2));
+        assertEquals(2, result.getComponentSize(1));
+        assertTrue(result.inSameComponent(0, 2));
+
+        int[] members = new int[5];
+        int size = 0;
+        for (int c = 0; c < result.getNumComponents(); c++) {
+            for (int i = result.getMemberStart(c); i < result.getMemberEnd(c); i++) {
+                members[size++] = result.getMember(i);
+            }
+        }
+        assertArrayEquals(new int[] { 1, 4, 0, 2, 3 }, members);
+    }
+
+    @Test
+    void testComponentListsAreReadOnlyViews() {
+        SCCResult result = new SCCResult(new int[] { 0, 0, 1 }, 2);
+        List<List<Integer>> components = result.getComponents();
+
+        assertEquals(2, components.size());
+        assertEquals(List.of(0, 1), components.get(0));
+        assertThrows(UnsupportedOperationException.class, () -> components.get(0).add(5));
+        assertThrows(UnsupportedOperationException.class, () -> components.remove(0));
+    }
+
+    @Test
+    void testListConstructorChecksListsAgainstIds() {
+        int[] ids = { 1, 1, 0 };
+        SCCResult result = new SCCResult(Arrays.asList(Arrays.asList(2), Arrays.asList(1, 0)), ids);
+        ids[0] = 0;
+
+        assertEquals(1, result.getComponentId(0));
+        assertEquals(List.of(2), result.getComponent(0));
+        assertEquals(List.of(0, 1), result.getComponent(1));
+
+        int[] same = { 1, 1, 0 };
+        assertThrows(IllegalArgumentException.class,
+                () -> new SCCResult(Arrays.asList(Arrays.asList(0, 1), Arrays.asList(2)), same));
+        assertThrows(IllegalArgumentException.class,
+                () -> new SCCResult(Arrays.asList(Arrays.asList(2), Arrays.asList(1)), same));
+        assertThrows(IllegalArgumentException.class,
+                () -> new SCCResult(Arrays.asList(Arrays.asList(2), Arrays.asList(1, 1, 0)), same));
+        assertThrows(IllegalArgumentException.class,
+                () -> new SCCResult(Arrays.asList(Arrays.asList(2), Arrays.asList(0, 1, 3)), same));
+    }
+
+    @Test
+    void testInvalidIdsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new SCCResult(new int[] { 0, 2 }, 2));
+        assertThrows(IllegalArgumentException.class, () -> new SCCResult(new int[] { -1 }, 1));
+        SCCResult result = new SCCResult(new int[] { 0 }, 1);
+        assertThrows(IllegalArgumentException.class, () -> result.getComponentSize(1));
+    }
+}
@@ -144,6 +144,47 @@ public class TarjanSCCTest {
         assertTrue(metrics.getTime("tarjan_scc_total") > 0);
     }
 
+    @Test
+    void testDeepChainDoesNotOverflowStack() {
+        int n = 1_000_000;
+        GraphBuilder builder = new GraphBuilder(n, true, n);
+        for (int i = 0; i < n - 1; i++) {
+            builder.addEdge(i, i + 1, 1);
+        }
+
+        SCCResult chain = new TarjanSCC(builder.build(), metrics).findSCC();
+        assertEquals(n, chain.getNumComponents());
+        assertEquals(0, chain.getComponentId(0));
+        assertEquals(n - 1, chain.getComponentId(n - 1));
+
+        builder.addEdge(n - 1, 0, 1);
+        SCCResult cycle = new TarjanSCC(builder.build(), metrics).findSCC();
+        assertEquals(1, cycle.getNumComponents());
+        assertEquals(n, cycle.getComponentSize(0));
+    }
+
+    @Test
+    void testCachedSCCReusedUntilGraphChanges() {
+        Graph graph = new Graph(3, true);
+        graph.addEdge(0, 1);
+        graph.addEdge(1, 2);
+
+        SCCResult first = TarjanSCC.cachedSCC(graph, metrics);
+        long visits = metrics.getCounter("dfs_visits");
+
+        assertSame(first, TarjanSCC.cachedSCC(graph, metrics));
+        assertEquals(visits, metrics.getCounter("dfs_visits"));
+        assertSame(SCCCondensation.cachedCondensationDAG(graph, metrics),
+                SCCCondensation.cachedCondensationDAG(graph, metrics));
+
+        graph.addEdge(2, 0);
+
+        SCCResult second = TarjanSCC.cachedSCC(graph, metrics);
+        assertNotSame(first, second);
+        assertEquals(1, second.getNumComponents());
+        assertEquals(1, SCCCondensation.cachedCondensationDAG(graph, metrics).getNumVertices());
+    }
+
     @Test
     void testUndirectedGraphThrows() {
         Graph undirectedGraph = new Graph(3, false);
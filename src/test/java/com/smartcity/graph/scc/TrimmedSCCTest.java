@@ -0,0 +1,95 @@
+package com.smartcity.graph.scc;
+
+import com.smartcity.common.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class TrimmedSCCTest {
+
+    private Metrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        metrics = new MetricsImpl();
+    }
+
+    @Test
+    void testMatchesUntrimmedRunOnRandomGraphs() {
+        Random random = new Random(29);
+        List<SCCAlgorithm> engines = List.of(TarjanSCC.algorithm(), new PearceSCC(), new KosarajuSCC(),
+                ParallelSCC.algorithm(ForkJoinPool.commonPool(), 0));
+        for (int round = 0; round < 20; round++) {
+            int n = 1 + random.nextInt(500);
+            Graph graph = new Graph(n, true);
+            int m = random.nextInt(2 * n);
+            for (int i = 0; i < m; i++) {
+                graph.addEdge(random.nextInt(n), random.nextInt(n));
+            }
+            SCCResult expected = new TarjanSCC(graph, metrics).findSCC();
+
+            for (SCCAlgorithm engine : engines) {
+                SCCResult actual = new TrimmedSCC(engine).findSCC(graph, metrics);
+                ParallelSCCTest.assertSamePartition(graph, expected, actual);
+            }
+        }
+    }
+
+    @Test
+    void testDagNeverReachesEngine() {
+        Graph graph = new Graph(6, true);
+        graph.addEdge(5, 4);
+        graph.addEdge(4, 3);
+        graph.addEdge(3, 1);
+        graph.addEdge(5, 2);
+        graph.addEdge(2, 0);
+
+        SCCAlgorithm engine = (g, m) -> fail("core should be empty");
+        SCCResult result = new TrimmedSCC(engine).findSCC(graph, metrics);
+
+        assertEquals(6, result.getNumComponents());
+        assertEquals(6, metrics.getCounter("trimmed_vertices"));
+        assertEquals(0, metrics.getCounter("scc_core_vertices"));
+        ParallelSCCTest.assertSamePartition(graph, new TarjanSCC(graph, metrics).findSCC(), result);
+    }
+
+    @Test
+    void testOnlyCycleReachesEngine() {
+        Graph graph = new Graph(6, true);
+        graph.addEdge(0, 1);
+        graph.addEdge(1, 2);
+        graph.addEdge(2, 3);
+        graph.addEdge(3, 1);
+        graph.addEdge(3, 4);
+        graph.addEdge(5, 4);
+
+        int[] coreSize = new int[1];
+        SCCAlgorithm engine = (g, m) -> {
+            coreSize[0] = g.getNumVertices();
+            return new TarjanSCC().findSCC(g, m);
+        };
+        SCCResult result = new TrimmedSCC(engine).findSCC(graph, metrics);
+
+        assertEquals(3, coreSize[0]);
+        assertEquals(4, result.getNumComponents());
+        assertTrue(result.inSameComponent(1, 3));
+        ParallelSCCTest.assertSamePartition(graph, new TarjanSCC(graph, metrics).findSCC(), result);
+    }
+
+    @Test
+    void testLargeDatasetTailIsTrimmed() throws Exception {
+        Graph graph = GraphLoader.streamGraph("data/large/large_02_complex_scc.json");
+
+        SCCResult expected = new TarjanSCC(graph, metrics).findSCC();
+        SCCResult result = new TrimmedSCC(new TarjanSCC()).findSCC(graph, metrics);
+
+        ParallelSCCTest.assertSamePartition(graph, expected, result);
+        assertTrue(metrics.getCounter("trimmed_vertices") > 0);
+        for (int v = 25; v <= 29; v++) {
+            assertEquals(1, result.getComponentSize(result.getComponentId(v)));
+        }
+    }
+}
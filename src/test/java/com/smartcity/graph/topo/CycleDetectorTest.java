@@ -0,0 +1,124 @@
+package com.smartcity.graph.topo;
+
+import com.smartcity.common.*;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.List;
+import java.util.Random;
+
+public class CycleDetectorTest {
+
+    @Test
+    void testAcyclic() {
+        Graph dag = new Graph(4, true);
+        dag.addEdge(0, 1);
+        dag.addEdge(0, 2);
+        dag.addEdge(1, 3);
+        dag.addEdge(2, 3);
+
+        assertNull(CycleDetector.findCycle(dag));
+        assertTrue(CycleDetector.isDAG(dag));
+        assertTrue(new KahnTopologicalSort().isDAG(dag));
+    }
+
+    @Test
+    void testWitness() {
+        Graph graph = new Graph(5, true);
+        graph.addEdge(0, 1);
+        graph.addEdge(1, 2);
+        graph.addEdge(2, 3);
+        graph.addEdge(3, 1);
+        graph.addEdge(3, 4);
+
+        assertEquals(List.of(1, 2, 3), CycleDetector.findCycle(graph));
+        assertFalse(new KahnTopologicalSort().isDAG(graph));
+    }
+
+    @Test
+    void testSelfLoop() {
+        Graph graph = new Graph(3, true);
+        graph.addEdge(0, 1);
+        graph.addEdge(2, 2);
+
+        assertEquals(List.of(2), CycleDetector.findCycle(graph));
+    }
+
+    @Test
+    void testRandomGraphs() {
+        Random random = new Random(11);
+        KahnTopologicalSort kahnSort = new KahnTopologicalSort();
+        for (int round = 0; round < 50; round++) {
+            int n = 1 + random.nextInt(200);
+            Graph graph = new Graph(n, true);
+            int m = random.nextInt(n + n / 2);
+            for (int i = 0; i < m; i++) {
+                graph.addEdge(random.nextInt(n), random.nextInt(n));
+            }
+
+            List<Integer> cycle = CycleDetector.findCycle(graph);
+            assertEquals(kahnSort.sortToArray(graph, new MetricsImpl()) == null, cycle != null);
+            if (cycle != null) {
+                assertEquals(cycle.size(), cycle.stream().distinct().count());
+                for (int i = 0; i < cycle.size(); i++) {
+                    assertTrue(hasEdge(graph, cycle.get(i), cycle.get((i + 1) % cycle.size())));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testCompressedGraphs() {
+        Random random = new Random(13);
+        KahnTopologicalSort kahnSort = new KahnTopologicalSort();
+        for (int round = 0; round < 50; round++) {
+            int n = 1 + random.nextInt(200);
+            Graph graph = new Graph(n, true);
+            int m = random.nextInt(n + n / 2);
+            for (int i = 0; i < m; i++) {
+                graph.addEdge(random.nextInt(n), random.nextInt(n));
+            }
+
+            List<Integer> cycle = CycleDetector.findCycle(CompressedGraph.encode(graph));
+            assertEquals(kahnSort.sortToArray(graph, new MetricsImpl()) == null, cycle != null);
+            if (cycle != null) {
+                for (int i = 0; i < cycle.size(); i++) {
+                    assertTrue(hasEdge(graph, cycle.get(i), cycle.get((i + 1) % cycle.size())));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testLongChain() {
+        int n = 1_000_000;
+        int[] from = new int[n];
+        int[] to = new int[n];
+        for (int i = 0; i < n - 1; i++) {
+            from[i] = i;
+            to[i] = i + 1;
+        }
+        CSRGraph chain = new GraphBuilder(n, true).addEdges(from, to, null, 0, n - 1).build();
+        assertTrue(CycleDetector.isDAG(chain));
+
+        from[n - 1] = n - 1;
+        to[n - 1] = 0;
+        CSRGraph ring = new GraphBuilder(n, true).addEdges(from, to, null).build();
+        assertEquals(n, CycleDetector.findCycle(ring).size());
+    }
+
+    @Test
+    void testUndirectedGraphThrows() {
+        Graph undirected = new Graph(3, false);
+
+        assertThrows(IllegalArgumentException.class, () -> CycleDetector.findCycle(undirected));
+    }
+
+    private static boolean hasEdge(Graph graph, int u, int v) {
+        for (int i = 0; i < graph.getOutDegree(u); i++) {
+            if (graph.getEdgeTarget(u, i) == v) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
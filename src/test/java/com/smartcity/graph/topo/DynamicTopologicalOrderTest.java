@@ -0,0 +1,125 @@
+package com.smartcity.graph.topo;
+
+import com.smartcity.common.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.List;
+import java.util.Random;
+
+public class DynamicTopologicalOrderTest {
+
+    private Metrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        metrics = new MetricsImpl();
+    }
+
+    @Test
+    void testReordersWindowOnly() {
+        // Chain 0 -> 1 -> ... -> 9 plus isolated 10 and 11, seeded in id order.
+        Graph graph = new Graph(12, true);
+        for (int v = 0; v < 9; v++) {
+            graph.addEdge(v, v + 1);
+        }
+        int[] identity = { 0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11 };
+        DynamicTopologicalOrder order = new DynamicTopologicalOrder(graph, identity, metrics);
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11), order.getOrder());
+
+        // 11 -> 10 runs against the order: only 10 and 11 move.
+        assertTrue(order.addEdge(11, 10));
+        assertTrue(order.precedes(11, 10));
+        assertEquals(2, metrics.getCounter("dynamic_topo_reordered"));
+
+        // Agrees with the order: nothing moves.
+        assertTrue(order.addEdge(2, 7));
+        assertEquals(2, metrics.getCounter("dynamic_topo_reordered"));
+    }
+
+    @Test
+    void testRejectsCycles() {
+        Graph graph = new Graph(4, true);
+        graph.addEdge(0, 1);
+        graph.addEdge(1, 2);
+        DynamicTopologicalOrder order = new DynamicTopologicalOrder(graph, metrics);
+        int[] before = order.toArray();
+
+        assertFalse(order.addEdge(2, 0));
+        assertFalse(order.addEdge(3, 3));
+        assertArrayEquals(before, order.toArray());
+        assertEquals(2, metrics.getCounter("dynamic_topo_rejected"));
+
+        assertTrue(order.addEdge(2, 3));
+        assertFalse(order.addEdge(3, 0));
+    }
+
+    @Test
+    void testRandomInsertionsKeepValidOrder() {
+        Random random = new Random(37);
+        for (int round = 0; round < 10; round++) {
+            int n = 2 + random.nextInt(150);
+            Graph mirror = new Graph(n, true);
+            DynamicTopologicalOrder order = new DynamicTopologicalOrder(mirror, metrics);
+
+            for (int i = 0; i < 3 * n; i++) {
+                int u = random.nextInt(n);
+                int v = random.nextInt(n);
+                boolean acyclic = !reaches(mirror, v, u);
+                assertEquals(acyclic, order.addEdge(u, v), u + " -> " + v);
+                if (acyclic) {
+                    mirror.addEdge(u, v);
+                }
+                assertValidOrder(mirror, order);
+            }
+        }
+    }
+
+    @Test
+    void testSeedValidation() {
+        Graph graph = new Graph(3, true);
+        graph.addEdge(0, 1);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new DynamicTopologicalOrder(graph, new int[] { 1, 0, 2 }, metrics));
+        assertThrows(IllegalArgumentException.class,
+                () -> new DynamicTopologicalOrder(graph, new int[] { 0, 0, 1 }, metrics));
+
+        graph.addEdge(1, 0);
+        assertThrows(IllegalArgumentException.class, () -> new DynamicTopologicalOrder(graph, metrics));
+    }
+
+    private static boolean reaches(Graph graph, int source, int target) {
+        boolean[] seen = new boolean[graph.getNumVertices()];
+        int[] stack = new int[graph.getNumVertices()];
+        int top = 0;
+        stack[top++] = source;
+        seen[source] = true;
+        while (top > 0) {
+            int u = stack[--top];
+            if (u == target) {
+                return true;
+            }
+            for (int i = 0; i < graph.getOutDegree(u); i++) {
+                int w = graph.getEdgeTarget(u, i);
+                if (!seen[w]) {
+                    seen[w] = true;
+                    stack[top++] = w;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void assertValidOrder(Graph graph, DynamicTopologicalOrder order) {
+        int[] array = order.toArray();
+        for (int i = 0; i < array.length; i++) {
+            assertEquals(i, order.getPosition(array[i]));
+        }
+        for (int u = 0; u < graph.getNumVertices(); u++) {
+            for (int i = 0; i < graph.getOutDegree(u); i++) {
+                assertTrue(order.precedes(u, graph.getEdgeTarget(u, i)));
+            }
+        }
+    }
+}
@@ -124,13 +124,63 @@ public class KahnTopologicalSortTest {
 
         kahnSort.topologicalSort(dag, metrics);
 
-        assertTrue(metrics.getCounter("indegree_calculations") > 0);
+        assertEquals(3, metrics.getCounter("indegree_calculations"));
         assertTrue(metrics.getCounter("queue_pushes") > 0);
         assertTrue(metrics.getCounter("queue_pops") > 0);
         assertTrue(metrics.getCounter("vertices_processed") > 0);
         assertTrue(metrics.getTime("kahn_topological_sort") > 0);
     }
 
+    @Test
+    void testSortLeavesNoInDegreesCached() {
+        Graph dag = new Graph(3, true);
+        dag.addEdge(0, 1);
+        dag.addEdge(1, 2);
+
+        kahnSort.sortToArray(dag, metrics);
+        assertFalse(dag.getDerivedCache().contains(AdjacencyGraph.IN_DEGREES));
+
+        int[] cached = dag.getCachedInDegrees();
+        kahnSort.sortToArray(dag, metrics);
+        assertArrayEquals(new int[] {0, 1, 1}, cached, "the cached array is copied, not consumed");
+    }
+
+    @Test
+    void testSortToArray() {
+        Graph dag = new Graph(5, true);
+        dag.addEdge(3, 1);
+        dag.addEdge(1, 0);
+        dag.addEdge(4, 0);
+        dag.addEdge(2, 4);
+
+        int[] order = kahnSort.sortToArray(dag, metrics);
+
+        assertArrayEquals(new int[] { 2, 3, 4, 1, 0 }, order);
+        assertEquals(List.of(2, 3, 4, 1, 0), kahnSort.topologicalSort(dag, metrics));
+
+        dag.addEdge(0, 3);
+        assertNull(kahnSort.sortToArray(dag, metrics));
+    }
+
+    @Test
+    void testSortToArrayLargeChain() {
+        int n = 1_000_000;
+        int[] from = new int[n - 1];
+        int[] to = new int[n - 1];
+        for (int i = 0; i < n - 1; i++) {
+            from[i] = n - 1 - i;
+            to[i] = n - 2 - i;
+        }
+        CSRGraph chain = new GraphBuilder(n, true).addEdges(from, to, null).build();
+
+        int[] order = kahnSort.sortToArray(chain, metrics);
+
+        assertEquals(n, order.length);
+        for (int i = 0; i < n; i++) {
+            assertEquals(n - 1 - i, order[i]);
+        }
+    }
+
     @Test
     void testUndirectedGraphThrows() {
         Graph undirected = new Graph(3, false);
@@ -0,0 +1,163 @@
+package com.smartcity.graph.topo;
+
+import com.smartcity.common.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class ParallelTopologicalSortTest {
+
+    private Metrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        metrics = new MetricsImpl();
+    }
+
+    @Test
+    void testLevels() {
+        // 0 -> 2, 1 -> 2, 2 -> 3, 0 -> 3, 4 isolated
+        Graph dag = new Graph(5, true);
+        dag.addEdge(0, 2);
+        dag.addEdge(1, 2);
+        dag.addEdge(2, 3);
+        dag.addEdge(0, 3);
+
+        TopologicalLevels levels = new ParallelTopologicalSort().computeLevels(dag, metrics);
+
+        assertEquals(3, levels.getNumLevels());
+        assertEquals(List.of(0, 1, 4), levels.getLevel(0));
+        assertEquals(List.of(2), levels.getLevel(1));
+        assertEquals(List.of(3), levels.getLevel(2));
+        assertEquals(3, levels.getMaxWidth());
+        assertArrayEquals(new int[] { 0, 0, 1, 2, 0 }, levels.getVertexLevels());
+        assertEquals(3, metrics.getCounter("topo_levels"));
+    }
+
+    @Test
+    void testParallelLevelsMatchLongestPathDepth() {
+        Random random = new Random(13);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ParallelTopologicalSort parallel = new ParallelTopologicalSort(pool).setSequentialThreshold(0);
+            for (int round = 0; round < 6; round++) {
+                int n = 5_000 + random.nextInt(30_000);
+                CSRGraph dag = randomWideDag(random, n, 1 + random.nextInt(30));
+
+                TopologicalLevels levels = parallel.computeLevels(dag, metrics);
+                assertNotNull(levels);
+                assertEquals(depths(dag), toList(levels.getVertexLevels()));
+                assertOrderRespectsEdges(dag, levels.getOrder());
+            }
+            assertTrue(metrics.getCounter("parallel_levels") > 0);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testScaledPerformanceDataset() throws Exception {
+        Graph base = GraphLoader.loadGraph("data/large/large_01_perf_dag.json");
+        int copies = 20_000;
+        int n = base.getNumVertices() * copies;
+        GraphBuilder builder = new GraphBuilder(n, true);
+        for (int c = 0; c < copies; c++) {
+            int offset = c * base.getNumVertices();
+            for (int u = 0; u < base.getNumVertices(); u++) {
+                for (int i = 0; i < base.getOutDegree(u); i++) {
+                    builder.addEdge(offset + u, offset + base.getEdgeTarget(u, i), base.getEdgeWeight(u, i));
+                }
+            }
+        }
+        CSRGraph scaled = builder.build();
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            TopologicalLevels parallel = new ParallelTopologicalSort(pool).computeLevels(scaled, metrics);
+            TopologicalLevels sequential = new ParallelTopologicalSort(pool)
+                    .setSequentialThreshold(Integer.MAX_VALUE).computeLevels(scaled, metrics);
+
+            assertEquals(sequential.getNumLevels(), parallel.getNumLevels());
+            assertArrayEquals(sequential.getVertexLevels(), parallel.getVertexLevels());
+            assertOrderRespectsEdges(scaled, parallel.getOrder());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testCycleDetection() {
+        Random random = new Random(3);
+        CSRGraph dag = randomWideDag(random, 60_000, 10);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ParallelTopologicalSort parallel = new ParallelTopologicalSort(pool).setSequentialThreshold(0);
+            assertTrue(parallel.isDAG(dag));
+
+            GraphBuilder builder = new GraphBuilder(dag.getNumVertices(), true);
+            for (int u = 0; u < dag.getNumVertices(); u++) {
+                for (int e = dag.getEdgeStart(u); e < dag.getEdgeEnd(u); e++) {
+                    builder.addEdge(u, dag.getTarget(e), dag.getWeight(e));
+                }
+            }
+            CSRGraph cyclic = builder.addEdge(59_999, 0, 1).addEdge(0, 59_999, 1).build();
+
+            assertNull(parallel.sortToArray(cyclic, metrics));
+            assertTrue(metrics.getCounter("cycle_detected") > 0);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testUndirectedGraphThrows() {
+        Graph undirected = new Graph(3, false);
+
+        assertThrows(IllegalArgumentException.class, () -> {
+            new ParallelTopologicalSort().sortToArray(undirected, metrics);
+        });
+    }
+
+    private static CSRGraph randomWideDag(Random random, int n, int layers) {
+        GraphBuilder builder = new GraphBuilder(n, true);
+        for (int i = 0; i < 2 * n; i++) {
+            int u = random.nextInt(n);
+            int v = random.nextInt(n);
+            // Edges only go from a lower layer to a higher one.
+            if (u % layers < v % layers) {
+                builder.addEdge(u, v, 1);
+            }
+        }
+        return builder.build();
+    }
+
+    private static List<Integer> depths(CSRGraph dag) {
+        int[] order = new KahnTopologicalSort().sortToArray(dag, new MetricsImpl());
+        int[] depth = new int[dag.getNumVertices()];
+        for (int u : order) {
+            for (int e = dag.getEdgeStart(u); e < dag.getEdgeEnd(u); e++) {
+                depth[dag.getTarget(e)] = Math.max(depth[dag.getTarget(e)], depth[u] + 1);
+            }
+        }
+        return toList(depth);
+    }
+
+    private static List<Integer> toList(int[] array) {
+        return new IntListView(array);
+    }
+
+    private static void assertOrderRespectsEdges(AdjacencyGraph graph, int[] order) {
+        int[] position = new int[graph.getNumVertices()];
+        for (int i = 0; i < order.length; i++) {
+            position[order[i]] = i;
+        }
+        for (int u = 0; u < graph.getNumVertices(); u++) {
+            for (int i = 0; i < graph.getOutDegree(u); i++) {
+                assertTrue(position[u] < position[graph.getEdgeTarget(u, i)]);
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.smartcity.graph.topo;
+
+import com.smartcity.common.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+public class PriorityTopologicalSortTest {
+
+    private Metrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        metrics = new MetricsImpl();
+    }
+
+    @Test
+    void testHighestPriorityReadyFirst() {
+        // 0 -> 3, 1 -> 3, 2 isolated
+        Graph dag = new Graph(4, true);
+        dag.addEdge(0, 3);
+        dag.addEdge(1, 3);
+
+        double[] priority = { 1, 5, 3, 100 };
+        assertArrayEquals(new int[] { 1, 2, 0, 3 },
+                new PriorityTopologicalSort(priority).sortToArray(dag, metrics));
+
+        // Equal priorities fall back to ascending ids.
+        assertArrayEquals(new int[] { 0, 1, 2, 3 },
+                new PriorityTopologicalSort(new double[4]).sortToArray(dag, metrics));
+    }
+
+    @Test
+    void testMatchesReferenceOnRandomDags() {
+        Random random = new Random(19);
+        for (int round = 0; round < 20; round++) {
+            int n = 1 + random.nextInt(2_000);
+            Graph dag = new Graph(n, true);
+            for (int i = 0; i < 3 * n; i++) {
+                int u = random.nextInt(n);
+                int v = random.nextInt(n);
+                if (u < v) {
+                    dag.addEdge(u, v);
+                }
+            }
+            double[] priority = new double[n];
+            for (int v = 0; v < n; v++) {
+                priority[v] = random.nextInt(50);
+            }
+
+            assertArrayEquals(reference(dag, priority),
+                    new PriorityTopologicalSort(priority).sortToArray(dag, metrics));
+        }
+    }
+
+    @Test
+    void testCycleAndValidation() {
+        Graph cyclic = new Graph(3, true);
+        cyclic.addEdge(0, 1);
+        cyclic.addEdge(1, 2);
+        cyclic.addEdge(2, 1);
+
+        assertNull(new PriorityTopologicalSort(new double[3]).sortToArray(cyclic, metrics));
+        assertTrue(metrics.getCounter("cycle_detected") > 0);
+        assertThrows(IllegalArgumentException.class,
+                () -> new PriorityTopologicalSort(new double[2]).sortToArray(cyclic, metrics));
+    }
+
+    private static int[] reference(Graph dag, double[] priority) {
+        int n = dag.getNumVertices();
+        int[] inDegree = dag.getInDegrees();
+        PriorityQueue<Integer> ready = new PriorityQueue<>((a, b) ->
+                priority[a] != priority[b] ? Double.compare(priority[b], priority[a]) : Integer.compare(a, b));
+        for (int v = 0; v < n; v++) {
+            if (inDegree[v] == 0) {
+                ready.add(v);
+            }
+        }
+        int[] order = new int[n];
+        int size = 0;
+        while (!ready.isEmpty()) {
+            int u = ready.poll();
+            order[size++] = u;
+            for (int i = 0; i < dag.getOutDegree(u); i++) {
+                int v = dag.getEdgeTarget(u, i);
+                if (--inDegree[v] == 0) {
+                    ready.add(v);
+                }
+            }
+        }
+        return order;
+    }
+}
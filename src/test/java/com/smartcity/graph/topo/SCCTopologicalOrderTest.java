@@ -0,0 +1,132 @@
+package com.smartcity.graph.topo;
+
+import com.smartcity.common.*;
+import com.smartcity.graph.scc.SCCCondensation;
+import com.smartcity.graph.scc.SCCResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.List;
+import java.util.Random;
+
+public class SCCTopologicalOrderTest {
+
+    private Metrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        metrics = new MetricsImpl();
+    }
+
+    @Test
+    void testOrdersRespectEdgesOnRandomGraphs() {
+        Random random = new Random(23);
+        for (int round = 0; round < 20; round++) {
+            int n = 1 + random.nextInt(400);
+            Graph graph = new Graph(n, true);
+            int m = random.nextInt(2 * n);
+            for (int i = 0; i < m; i++) {
+                graph.addEdge(random.nextInt(n), random.nextInt(n));
+            }
+
+            SCCTopologicalOrder sccTopo = new SCCTopologicalOrder(graph, metrics);
+            assertTrue(sccTopo.computeOrder());
+            SCCResult scc = sccTopo.getSCCResult();
+
+            List<Integer> vertexOrder = sccTopo.getOriginalVertexOrder();
+            assertEquals(n, vertexOrder.size());
+            int[] position = new int[n];
+            boolean[] seen = new boolean[n];
+            for (int i = 0; i < n; i++) {
+                int v = vertexOrder.get(i);
+                assertFalse(seen[v]);
+                seen[v] = true;
+                position[v] = i;
+            }
+
+            List<Integer> componentOrder = sccTopo.getComponentOrder();
+            assertEquals(scc.getNumComponents(), componentOrder.size());
+            int[] rank = new int[componentOrder.size()];
+            for (int i = 0; i < rank.length; i++) {
+                rank[componentOrder.get(i)] = i;
+            }
+
+            for (int u = 0; u < n; u++) {
+                for (int i = 0; i < graph.getOutDegree(u); i++) {
+                    int v = graph.getEdgeTarget(u, i);
+                    if (!scc.inSameComponent(u, v)) {
+                        assertTrue(rank[scc.getComponentId(u)] < rank[scc.getComponentId(v)]);
+                        assertTrue(position[u] < position[v]);
+                    }
+                }
+            }
+
+            // The condensation is sorted by the component order as well.
+            CSRGraph dag = sccTopo.getCondensationSnapshot();
+            assertNotNull(KahnTopologicalSort.cachedOrder(dag, metrics));
+            for (int c = 0; c < dag.getNumVertices(); c++) {
+                for (int i = 0; i < dag.getOutDegree(c); i++) {
+                    assertTrue(rank[c] < rank[dag.getEdgeTarget(c, i)]);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testCondensationBuiltOnlyWhenRequested() {
+        Graph graph = new Graph(4, true);
+        graph.addEdge(0, 1);
+        graph.addEdge(1, 0);
+        graph.addEdge(1, 2);
+        graph.addEdge(3, 2);
+
+        SCCTopologicalOrder sccTopo = new SCCTopologicalOrder(graph, metrics);
+        assertTrue(sccTopo.computeOrder());
+        assertFalse(graph.getDerivedCache().contains(SCCCondensation.CONDENSATION_DAG));
+        assertEquals(2, sccTopo.getCondensationSnapshot().getNumEdges());
+
+        SCCTopologicalOrder eager = new SCCTopologicalOrder(graph, metrics);
+        assertTrue(eager.computeOrder(true));
+        assertSame(sccTopo.getCondensationSnapshot(), eager.getCondensationSnapshot());
+
+        Graph copy = eager.getCondensationDAG();
+        assertEquals(3, copy.getNumVertices());
+        assertEquals(2, copy.getNumEdges());
+    }
+
+    @Test
+    void testCondensationMatchesSCCResultAfterGraphChanges() {
+        Graph graph = new Graph(3, true);
+        graph.addEdge(0, 1);
+        graph.addEdge(1, 2);
+
+        SCCTopologicalOrder eager = new SCCTopologicalOrder(graph, metrics);
+        assertTrue(eager.computeOrder(true));
+        SCCTopologicalOrder lazy = new SCCTopologicalOrder(graph, metrics);
+        assertTrue(lazy.computeOrder());
+
+        graph.addEdge(2, 0);
+
+        // The eager one keeps the condensation of its own SCC result.
+        assertEquals(3, eager.getSCCResult().getNumComponents());
+        assertEquals(3, eager.getCondensationSnapshot().getNumVertices());
+        assertThrows(IllegalStateException.class, lazy::getCondensationSnapshot);
+
+        assertTrue(eager.isStale());
+        assertTrue(eager.getSummary().contains("Condensation DAG: 3 vertices, 2 edges"));
+        String summary = assertDoesNotThrow(lazy::getSummary);
+        assertTrue(summary.startsWith("=== SCC + Topological Order Summary ===\nStale:"));
+        assertTrue(summary.contains("Condensation DAG: not built"));
+
+        assertTrue(lazy.computeOrder());
+        assertFalse(lazy.isStale());
+        assertEquals(1, lazy.getCondensationDAG().getNumVertices());
+    }
+
+    @Test
+    void testUndirectedGraphThrows() {
+        Graph undirected = new Graph(3, false);
+
+        assertThrows(IllegalArgumentException.class, () -> new SCCTopologicalOrder(undirected, metrics));
+    }
+}